@@ -26,11 +26,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.Set;
 
 @SuppressWarnings( { "rawtypes", "JavaDoc" } )
 public class JDOMModelConverter
 {
+    /**
+     * The sections of the model that PME commonly changes and that are only updated if they have changed.
+     */
+    protected enum Section
+    {
+        PARENT( "parent" ),
+        PROPERTIES( "properties" ),
+        DEPENDENCY_MANAGEMENT( "dependencyManagement" ),
+        DEPENDENCIES( "dependencies" ),
+        BUILD( "build" ),
+        PROFILES( "profiles" );
+
+        private final String element;
+
+        Section( String element )
+        {
+            this.element = element;
+        }
+    }
+
     protected final JDOMFactory factory = new UncheckedJDOMFactory();
 
     protected final Logger logger = LoggerFactory.getLogger( JDOMModelConverter.class );
@@ -49,6 +71,61 @@ public class JDOMModelConverter
         update( model, new IndentationCounter( 0 ), document.getRootElement() );
     }
 
+    /**
+     * Writes the model to the document, only updating the larger sections (parent, properties, dependencies,
+     * dependencyManagement, build and profiles) that have changed. As the bulk of most POMs is within those sections
+     * the cost of a small change, e.g. to a dependency version, is much reduced.
+     *
+     * @param model containing changes to propagate to the model.
+     * @param changed the names of the top level elements that differ from the document, e.g. <code>build</code> ; if
+     * null every section is updated.
+     * @param document the document to write changes to.
+     */
+    public void convertModelToJDOM ( final Model model, final Set<String> changed, Document document )
+    {
+        final Set<Section> dirty = changed == null ? EnumSet.allOf( Section.class ) : getSections( changed );
+
+        logger.debug( "Updating sections {} of {}", dirty, model.getId() );
+
+        updateModel( model, new IndentationCounter( 0 ), document.getRootElement(), dirty );
+    }
+
+    /**
+     * @param changed the names of the top level elements that have changed.
+     * @return the sections which have changed.
+     */
+    protected Set<Section> getSections( final Set<String> changed )
+    {
+        final Set<Section> dirty = EnumSet.noneOf( Section.class );
+
+        for ( Section section : Section.values() )
+        {
+            if ( changed.contains( section.element ) )
+            {
+                dirty.add( section );
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * Advances the counter for a section that is not updated exactly as updating it would have, so that the position
+     * of any elements inserted later is unaffected.
+     * @param counter
+     * @param parent
+     * @param name the element name of the section.
+     * @param shouldExist whether the section exists in the model.
+     * @param countExisting false if the update of the section does not count an existing element.
+     */
+    private void skipSection( final IndentationCounter counter, final Element parent, final String name,
+                              final boolean shouldExist, final boolean countExisting )
+    {
+        if ( shouldExist && ( countExisting || parent.getChild( name, parent.getNamespace() ) == null ) )
+        {
+            counter.increaseCount();
+        }
+    }
+
     /**
      * Method iterateContributor.
      * @param counter
@@ -1346,12 +1423,33 @@ public class JDOMModelConverter
      * @param element
      */
     protected void updateModel( final Model model, final IndentationCounter counter, final Element element )
+    {
+        updateModel( model, counter, element, EnumSet.allOf( Section.class ) );
+    }
+
+    /**
+     * Method updateModel.
+     *
+     * @param model
+     * @param counter
+     * @param element
+     * @param dirty the sections to update ; any others are unchanged.
+     */
+    protected void updateModel( final Model model, final IndentationCounter counter, final Element element,
+                                final Set<Section> dirty )
     {
         final IndentationCounter innerCount = new IndentationCounter( counter.getDepth() + 1 );
         Utils.findAndReplaceSimpleElement( innerCount, element,
                                            "modelVersion", model.getModelVersion(),
                                            null );
-        updateParent( model.getParent(), innerCount, element );
+        if ( dirty.contains( Section.PARENT ) )
+        {
+            updateParent( model.getParent(), innerCount, element );
+        }
+        else
+        {
+            skipSection( innerCount, element, "parent", model.getParent() != null, true );
+        }
         Utils.findAndReplaceSimpleElement( innerCount, element,
                                            "groupId", model.getGroupId(),
                                            null );
@@ -1383,15 +1481,53 @@ public class JDOMModelConverter
         updateIssueManagement( model.getIssueManagement(), innerCount, element );
         updateCiManagement( model.getCiManagement(), innerCount, element );
         updateDistributionManagement( model.getDistributionManagement(), innerCount, element );
-        Utils.findAndReplaceProperties( innerCount, element, "properties", model.getProperties() );
-        updateDependencyManagement( model.getDependencyManagement(), innerCount, element );
-        iterateDependency( innerCount, element, model.getDependencies() );
+        if ( dirty.contains( Section.PROPERTIES ) )
+        {
+            Utils.findAndReplaceProperties( innerCount, element, "properties", model.getProperties() );
+        }
+        else
+        {
+            skipSection( innerCount, element, "properties",
+                         model.getProperties() != null && !model.getProperties().isEmpty(), true );
+        }
+        if ( dirty.contains( Section.DEPENDENCY_MANAGEMENT ) )
+        {
+            updateDependencyManagement( model.getDependencyManagement(), innerCount, element );
+        }
+        else
+        {
+            skipSection( innerCount, element, "dependencyManagement", model.getDependencyManagement() != null, true );
+        }
+        if ( dirty.contains( Section.DEPENDENCIES ) )
+        {
+            iterateDependency( innerCount, element, model.getDependencies() );
+        }
+        else
+        {
+            skipSection( innerCount, element, "dependencies",
+                         model.getDependencies() != null && !model.getDependencies().isEmpty(), false );
+        }
         iterateRepository( innerCount, element, model.getRepositories(), "repositories", "repository" );
         iterateRepository( innerCount, element, model.getPluginRepositories(), "pluginRepositories", "pluginRepository" );
-        updateBuild( model.getBuild(), innerCount, element );
+        if ( dirty.contains( Section.BUILD ) )
+        {
+            updateBuild( model.getBuild(), innerCount, element );
+        }
+        else
+        {
+            skipSection( innerCount, element, "build", model.getBuild() != null, true );
+        }
         Utils.findAndReplaceXpp3DOM( innerCount, element, "reports", (Xpp3Dom) model.getReports() );
         updateReporting( model.getReporting(), innerCount, element );
-        iterateProfile( innerCount, element, model.getProfiles() );
+        if ( dirty.contains( Section.PROFILES ) )
+        {
+            iterateProfile( innerCount, element, model.getProfiles() );
+        }
+        else
+        {
+            skipSection( innerCount, element, "profiles",
+                         model.getProfiles() != null && !model.getProfiles().isEmpty(), false );
+        }
     } // -- void updateModel( Model, String, Counter, Element )
 
     /**
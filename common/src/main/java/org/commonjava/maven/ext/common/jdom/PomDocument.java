@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.jdom;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.WriterFactory;
+import org.codehaus.plexus.util.xml.XmlStreamReader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.util.LineSeparator;
+import org.jdom2.CDATA;
+import org.jdom2.Comment;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A POM parsed into a JDOM {@link Document}, along with the text before and after the root element which JDOM does
+ * not track. Together these preserve as much of the original formatting as possible. The document is created once
+ * when the POM is read so that it may be updated by {@link JDOMModelConverter} and written out without reading the
+ * file again.
+ * <p>
+ * The parsing and writing follows that of the Maven Release Plugin's <code>JDomModelETL</code>, which was previously
+ * used to rewrite the POMs.
+ */
+public class PomDocument
+{
+    // Used to find the intro and outtro if the serialised root element cannot be found in the content, e.g. due to
+    // whitespace or entity expansion.
+    private static final String SPACE = "\\s++";
+
+    private static final String XML = "<\\?(?:(?:[^\"'>]++)|(?:\"[^\"]*+\")|(?:'[^']*+'))*+>";
+
+    private static final String INTSUB = "\\[(?:(?:[^\"'\\]]++)|(?:\"[^\"]*+\")|(?:'[^']*+'))*+\\]";
+
+    private static final String DOCTYPE =
+                    "<!DOCTYPE(?:(?:[^\"'\\[>]++)|(?:\"[^\"]*+\")|(?:'[^']*+')|(?:" + INTSUB + "))*+>";
+
+    private static final String COMMENT = "<!--(?:[^-]|(?:-[^-]))*+-->";
+
+    private static final Pattern POM = Pattern.compile(
+                    "(?s)((?:(?:" + SPACE + ")|(?:" + XML + ")|(?:" + DOCTYPE + ")|(?:" + COMMENT + "))*)(.*?)"
+                                    + "((?:(?:" + SPACE + ")|(?:" + COMMENT + ")|(?:" + XML + "))*)" );
+
+    private final Document document;
+
+    private final LineSeparator lineSeparator;
+
+    private final String intro;
+
+    private String outtro;
+
+    /**
+     * A copy of the model that the document currently represents ; null if it is not known or is yet to be read from
+     * the content.
+     */
+    private Model model;
+
+    /**
+     * The content of the file the document was parsed from or last written to ; null if it is not known.
+     */
+    private byte[] content;
+
+    private PomDocument( Document document, LineSeparator lineSeparator, String intro, String outtro )
+    {
+        this.document = document;
+        this.lineSeparator = lineSeparator;
+        this.intro = intro;
+        this.outtro = outtro;
+    }
+
+    /**
+     * Parses the content of a POM.
+     *
+     * @param content the raw content of the POM file.
+     * @param lineSeparator the line separator used by the POM file, which is also used when writing it.
+     * @return the parsed document.
+     * @throws ManipulationException if the content cannot be parsed.
+     */
+    public static PomDocument parse( byte[] content, LineSeparator lineSeparator ) throws ManipulationException
+    {
+        final String ls = lineSeparator.value();
+        String text;
+
+        try ( Reader reader = new XmlStreamReader( new ByteArrayInputStream( content ) ) )
+        {
+            text = normaliseLineEndings( IOUtils.toString( reader ), ls );
+
+            // Any extra whitespace inside elements must be removed, as JDOM will discard it.
+            text = text.replaceAll( "<([^!][^>]*?)\\s{2,}([^>]*?)>", "<$1 $2>" );
+            text = text.replaceAll( "(\\s{2,})/>", "$1 />" );
+
+            final Document document = new SAXBuilder().build( new StringReader( text ) );
+
+            // JDOM normalises line endings to "\n" as per section 2.11 of the XML specification.
+            for ( Comment c : document.getDescendants( Filters.comment() ) )
+            {
+                c.setText( normaliseLineEndings( c.getText(), ls ) );
+            }
+            for ( CDATA c : document.getDescendants( Filters.cdata() ) )
+            {
+                c.setText( normaliseLineEndings( c.getText(), ls ) );
+            }
+
+            // Text outside the root element is not tracked so find it by comparing with the serialised root.
+            final String root = newOutputter( ls ).outputString( document.getRootElement() );
+            final int index = text.indexOf( root );
+            String intro = null;
+            String outtro = null;
+
+            if ( index >= 0 )
+            {
+                intro = text.substring( 0, index );
+                outtro = text.substring( index + root.length() );
+            }
+            else
+            {
+                final Matcher matcher = POM.matcher( text );
+                if ( matcher.matches() )
+                {
+                    intro = matcher.group( 1 );
+                    outtro = matcher.group( matcher.groupCount() );
+                }
+            }
+            final PomDocument result = new PomDocument( document, lineSeparator, intro, outtro );
+            result.content = content;
+            return result;
+        }
+        catch ( IOException | JDOMException e )
+        {
+            throw new ManipulationException( "Error reading POM: {}", e.getMessage(), e );
+        }
+    }
+
+    /**
+     * @return the document, which may be updated before it is written.
+     */
+    public Document getDocument()
+    {
+        return document;
+    }
+
+    public LineSeparator getLineSeparator()
+    {
+        return lineSeparator;
+    }
+
+    /**
+     * @return the text after the root element, or null if it could not be determined.
+     */
+    public String getOuttro()
+    {
+        return outtro;
+    }
+
+    public void setOuttro( String outtro )
+    {
+        this.outtro = outtro;
+    }
+
+    /**
+     * Rather than copying the model when the document is parsed, which would hold a second copy of every model while
+     * it is manipulated, it is read from the content when first needed.
+     *
+     * @return a copy of the model that the document currently represents, used to only update the sections of the
+     * document that have changed ; null if it is not known.
+     */
+    public Model getModel()
+    {
+        if ( model == null && content != null )
+        {
+            try
+            {
+                model = new MavenXpp3Reader().read( new ByteArrayInputStream( content ) );
+            }
+            catch ( IOException | XmlPullParserException e )
+            {
+                // Unreachable as the content has already been parsed, but the whole document is updated regardless.
+                return null;
+            }
+        }
+        return model;
+    }
+
+    public void setModel( Model model )
+    {
+        this.model = model;
+    }
+
+    /**
+     * @return the content of the file the document was parsed from or last written to, or null if it is not known.
+     */
+    public byte[] getContent()
+    {
+        return content;
+    }
+
+    /**
+     * @param content the content of the file once the document, or other changes to it, have been written.
+     */
+    public void setContent( byte[] content )
+    {
+        this.content = content;
+    }
+
+    /**
+     * Renders the document, surrounded by the original text before and after the root element, as it would be
+     * written to a file. The encoding is that declared by the document.
+     *
+     * @param modelVersion the model version used for the schema.
+     * @param addSchema whether to add the POM namespace and schema location to the root element.
+     * @return the rendered content.
+     * @throws ManipulationException if an error occurs.
+     */
+    public byte[] render( String modelVersion, boolean addSchema ) throws ManipulationException
+    {
+        final Element rootElement = document.getRootElement();
+
+        if ( addSchema )
+        {
+            final Namespace pomNamespace = Namespace.getNamespace( "", "http://maven.apache.org/POM/" + modelVersion );
+            final Namespace xsiNamespace = Namespace.getNamespace( "xsi",
+                                                                   "http://www.w3.org/2001/XMLSchema-instance" );
+            rootElement.setNamespace( pomNamespace );
+            rootElement.addNamespaceDeclaration( xsiNamespace );
+
+            if ( rootElement.getAttribute( "schemaLocation", xsiNamespace ) == null )
+            {
+                rootElement.setAttribute( "schemaLocation", "http://maven.apache.org/POM/" + modelVersion
+                                + " https://maven.apache.org/xsd/maven-" + modelVersion + ".xsd", xsiNamespace );
+            }
+
+            // The empty namespace is considered equal to the POM namespace, so match them up to avoid extra xmlns=""
+            for ( Element e : rootElement.getDescendants( Filters.element( Namespace.NO_NAMESPACE ) ) )
+            {
+                e.setNamespace( pomNamespace );
+            }
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream( content == null ? 8192 : content.length + 1024 );
+
+        try ( Writer writer = WriterFactory.newXmlWriter( out ) )
+        {
+            if ( intro != null )
+            {
+                writer.write( intro );
+            }
+            newOutputter( lineSeparator.value() ).output( rootElement, writer );
+            if ( outtro != null )
+            {
+                writer.write( outtro );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new ManipulationException( "Error rendering POM: {}", e.getMessage(), e );
+        }
+        return out.toByteArray();
+    }
+
+    private static XMLOutputter newOutputter( String ls )
+    {
+        final Format format = Format.getRawFormat();
+        format.setLineSeparator( ls );
+        return new XMLOutputter( format );
+    }
+
+    private static String normaliseLineEndings( String text, String ls )
+    {
+        return text == null ? null : text.replaceAll( "(\r\n)|(\n)|(\r)", ls );
+    }
+}
@@ -29,7 +29,7 @@ import java.util.List;
 
 @Setter
 @Getter
-@JsonPropertyOrder( {"executionRoot", "modules" } )
+@JsonPropertyOrder( {"executionRoot", "modules", "restMetrics" } )
 public class PME
 {
     /**
@@ -43,4 +43,10 @@ public class PME
      */
     @JsonProperty
     private List<ModulesItem> modules = new ArrayList<>();
+
+    /**
+     * A summary of the requests made to the Dependency Analyser, if any.
+     */
+    @JsonProperty
+    private RESTMetrics restMetrics;
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.json;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A summary of the requests made to the Dependency Analyser during alignment.
+ */
+@Getter
+@Setter
+public class RESTMetrics
+{
+    /**
+     * The number of requests sent, including those that failed and were split.
+     */
+    private long requests;
+
+    /**
+     * The total number of GAVs sent over all requests.
+     */
+    private long gavs;
+
+    /**
+     * The number of requests that failed with a recoverable error and were split into smaller requests.
+     */
+    private long splits;
+
+    /**
+     * The number of requests that were delayed before being sent because the server was unavailable.
+     */
+    private long retries;
+
+    /**
+     * The total size in bytes of the request bodies, as sent.
+     */
+    private long requestBytes;
+
+    /**
+     * The total size in bytes of the response bodies, as received.
+     */
+    private long responseBytes;
+
+    /**
+     * The total time in milliseconds spent in requests.
+     */
+    private long totalMillis;
+
+    /**
+     * The duration of the fastest request in milliseconds.
+     */
+    private long minMillis;
+
+    /**
+     * The duration of the slowest request in milliseconds.
+     */
+    private long maxMillis;
+
+    /**
+     * The number of requests by the upper bound of their duration in milliseconds; the last bucket is unbounded.
+     */
+    private Map<String, Long> latencyHistogram = new LinkedHashMap<>();
+
+    /**
+     * The number of requests by HTTP status; requests which failed without a response are counted as "error".
+     */
+    private Map<String, Long> statuses = new LinkedHashMap<>();
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.model;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.commonjava.maven.ext.common.session.MavenSessionHandler;
+import org.commonjava.maven.ext.common.util.ProfileUtils;
+import org.commonjava.maven.ext.common.util.PropertyInterpolator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The effective properties of a project: those of its model and its active profiles, layered over the effective
+ * properties of its parent. This is equivalent to merging the properties of every project in
+ * {@link Project#getInheritedList()} but without copying them for each lookup.
+ * <p>
+ * Each project has a single table per session, which is refreshed in place when the properties it is built from
+ * are modified (e.g. by updating a property). As the tables of its descendants look up through it they remain valid
+ * and need not be rebuilt.
+ */
+public class EffectiveProperties
+{
+    private final Project project;
+
+    private final EffectiveProperties parent;
+
+    private final MavenSessionHandler session;
+
+    /**
+     * The properties of this layer alone, replaced rather than modified so they may be read without locking.
+     */
+    private volatile Map<Object, Object> values;
+
+    /**
+     * The properties objects this layer was built from, those of the model followed by those of each active profile,
+     * and their modification counts ; null if any of them are not tracked, so that the layer is always rebuilt.
+     */
+    private Properties[] sources;
+
+    private int[] counts;
+
+    private PropertyInterpolator interpolator;
+
+    EffectiveProperties( Project project, EffectiveProperties parent, MavenSessionHandler session )
+    {
+        this.project = project;
+        this.parent = parent;
+        this.session = session;
+    }
+
+    /**
+     * Returns the effective value of the property, as {@link Properties#getProperty(String)} would for the merged
+     * properties.
+     *
+     * @param key the property name.
+     * @return the value, or null if it is not defined.
+     */
+    public String getProperty( String key )
+    {
+        for ( EffectiveProperties layer = this; layer != null; layer = layer.parent )
+        {
+            final Object value = layer.values.get( key );
+
+            if ( value != null )
+            {
+                return value instanceof String ? (String) value : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an interpolator over these properties, which resolves <code>project</code> and <code>pom</code>
+     * references against the root of the inheritance chain. It is reused for every lookup.
+     *
+     * @return the interpolator.
+     */
+    public synchronized PropertyInterpolator getInterpolator()
+    {
+        if ( interpolator == null )
+        {
+            EffectiveProperties root = this;
+            while ( root.parent != null )
+            {
+                root = root.parent;
+            }
+            interpolator = new PropertyInterpolator( new View( this ), root.project );
+        }
+        return interpolator;
+    }
+
+    boolean isFor( MavenSessionHandler session, EffectiveProperties parent )
+    {
+        return this.session == session && this.parent == parent;
+    }
+
+    /**
+     * Rebuilds this layer if the properties of the model or its active profiles have changed since it was built. This
+     * is called for every lookup so checking the layer does not allocate.
+     */
+    synchronized void refresh()
+    {
+        final Model model = project.getModel();
+        final List<Profile> profiles = ProfileUtils.getProfiles( session, model );
+
+        if ( isCurrent( model, profiles ) )
+        {
+            return;
+        }
+
+        final Map<Object, Object> result = new HashMap<>( model.getProperties() );
+        profiles.forEach( p -> result.putAll( p.getProperties() ) );
+        values = result;
+
+        sources = new Properties[profiles.size() + 1];
+        counts = new int[sources.length];
+        for ( int i = 0; i < sources.length; i++ )
+        {
+            final Properties properties = i == 0 ? model.getProperties() : profiles.get( i - 1 ).getProperties();
+
+            if ( !( properties instanceof TrackedProperties ) )
+            {
+                sources = null;
+                counts = null;
+                break;
+            }
+            sources[i] = properties;
+            counts[i] = ( (TrackedProperties) properties ).getModificationCount();
+        }
+    }
+
+    private boolean isCurrent( Model model, List<Profile> profiles )
+    {
+        if ( sources == null || sources.length != profiles.size() + 1 || !isCurrent( 0, model.getProperties() ) )
+        {
+            return false;
+        }
+        for ( int i = 0; i < profiles.size(); i++ )
+        {
+            if ( !isCurrent( i + 1, profiles.get( i ).getProperties() ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the properties are those the layer was built from at the given index and are unmodified.
+     */
+    private boolean isCurrent( int index, Properties properties )
+    {
+        return sources[index] == properties
+                        && ( (TrackedProperties) properties ).getModificationCount() == counts[index];
+    }
+
+    /**
+     * Presents the effective properties to the interpolator, which only looks up values by name.
+     */
+    private static final class View
+                    extends Properties
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final transient EffectiveProperties properties;
+
+        private View( EffectiveProperties properties )
+        {
+            this.properties = properties;
+        }
+
+        @Override
+        public String getProperty( String key )
+        {
+            return properties.getProperty( key );
+        }
+
+        @Override
+        public String getProperty( String key, String defaultValue )
+        {
+            final String value = properties.getProperty( key );
+            return value == null ? defaultValue : value;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.model;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The projects of a reactor as they were before manipulation, used to report what has changed.
+ * <p>
+ * Rather than copying every model up front, which doubles the memory used while manipulating, only the state that is
+ * not otherwise retained is recorded. As a project parsed from a file retains the content it was read from, which is
+ * never modified, the original models are read again from that content when they are first requested. Projects that
+ * were not parsed from a file have their model copied immediately.
+ */
+public class OriginalProjects
+{
+    private final Project[] projects;
+
+    private final Model[] models;
+
+    private final boolean[] inheritanceRoots;
+
+    // The index of the parent of each project, or -1 if it has none.
+    private final int[] parents;
+
+    // Copies of any parents that are not within the projects.
+    private final Project[] externalParents;
+
+    private List<Project> originals;
+
+    /**
+     * Records the original state of the projects ; this must be called before they are modified.
+     *
+     * @param projects the projects, with their parents linked.
+     */
+    public OriginalProjects( final List<Project> projects )
+    {
+        this.projects = projects.toArray( new Project[0] );
+        this.models = new Model[this.projects.length];
+        this.inheritanceRoots = new boolean[this.projects.length];
+        this.parents = new int[this.projects.length];
+        this.externalParents = new Project[this.projects.length];
+
+        final Map<Project, Integer> indices = new IdentityHashMap<>();
+        for ( int i = 0; i < this.projects.length; i++ )
+        {
+            indices.put( this.projects[i], i );
+        }
+
+        for ( int i = 0; i < this.projects.length; i++ )
+        {
+            final Project p = this.projects[i];
+
+            if ( p.getPomContent() == null )
+            {
+                models[i] = p.getModel().clone();
+            }
+            inheritanceRoots[i] = p.isInheritanceRoot();
+
+            final Integer parent = p.getProjectParent() == null ? null : indices.get( p.getProjectParent() );
+            parents[i] = parent == null ? -1 : parent;
+
+            if ( parent == null && p.getProjectParent() != null )
+            {
+                externalParents[i] = new Project( p.getProjectParent() );
+            }
+        }
+    }
+
+    /**
+     * Returns the original projects, in the same order and with the same parents as the projects they were recorded
+     * from. They are created on the first call.
+     *
+     * @return an unmodifiable list of the original projects.
+     * @throws ManipulationException if the original content of a project cannot be parsed.
+     */
+    public synchronized List<Project> getProjects()
+                    throws ManipulationException
+    {
+        if ( originals == null )
+        {
+            final Project[] result = new Project[projects.length];
+
+            try
+            {
+                IntStream.range( 0, projects.length ).parallel().forEach( i -> result[i] = createOriginal( i ) );
+            }
+            catch ( ManipulationUncheckedException e )
+            {
+                throw (ManipulationException) e.getCause();
+            }
+
+            for ( int i = 0; i < result.length; i++ )
+            {
+                result[i].setProjectParent( parents[i] >= 0 ? result[parents[i]] : externalParents[i] );
+            }
+            originals = Collections.unmodifiableList( new ArrayList<>( Arrays.asList( result ) ) );
+        }
+        return originals;
+    }
+
+    private Project createOriginal( int index )
+    {
+        final Project current = projects[index];
+
+        try
+        {
+            final Model model = models[index] != null ?
+                            models[index] :
+                            new MavenXpp3Reader().read( new ByteArrayInputStream( current.getPomContent() ) );
+            final Project result = new Project( current.getPom(), model );
+
+            result.setInheritanceRoot( inheritanceRoots[index] );
+            if ( current.isExecutionRoot() )
+            {
+                result.setExecutionRoot();
+            }
+            result.setIncrementalPME( current.isIncrementalPME() );
+            result.setPomContent( current.getPomContent() );
+            result.setLineSeparator( current.getLineSeparator() );
+            return result;
+        }
+        catch ( IOException | XmlPullParserException e )
+        {
+            throw new ManipulationUncheckedException(
+                            new ManipulationException( "Failed to read original model for POM: ({}) : {}",
+                                                       current.getPom(), e.getMessage(), e ) );
+        }
+        catch ( ManipulationException e )
+        {
+            throw new ManipulationUncheckedException( e );
+        }
+    }
+}
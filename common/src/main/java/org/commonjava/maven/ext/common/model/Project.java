@@ -29,7 +29,9 @@ import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.maven.atlas.ident.util.VersionUtils;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.jdom.PomDocument;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
+import org.commonjava.maven.ext.common.util.LineSeparator;
 import org.commonjava.maven.ext.common.util.ProfileUtils;
 import org.commonjava.maven.ext.common.util.PropertyResolver;
 import org.commonjava.maven.galley.maven.internal.defaults.StandardMaven350PluginDefaults;
@@ -38,12 +40,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Properties;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
@@ -62,6 +72,13 @@ public class Project
 
     private enum PluginResolver { NONE, PLUGIN_DEFAULTS, ALL }
 
+    private enum View
+    {
+        DEPENDENCIES, ALL_DEPENDENCIES, MANAGED_DEPENDENCIES, PLUGIN_DEPENDENCIES, PROFILE_DEPENDENCIES,
+        ALL_PROFILE_DEPENDENCIES, PROFILE_MANAGED_DEPENDENCIES, PLUGINS, ALL_PLUGINS, MANAGED_PLUGINS,
+        PROFILE_PLUGINS, ALL_PROFILE_PLUGINS, PROFILE_MANAGED_PLUGINS
+    }
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
     /**
@@ -87,11 +104,56 @@ public class Project
 
     private boolean incrementalPME;
 
+    /**
+     * The content of the POM file as read when parsing it ; null if the project was not parsed from a file.
+     */
+    private byte[] pomContent;
+
+    /**
+     * The line separator used by the POM file ; null if it is not known.
+     */
+    private LineSeparator lineSeparator;
+
+    /**
+     * The formatting preserving document parsed from the POM file when the project is first written through it,
+     * which is updated and written if the project is changed again ; null if it is not known. This is not copied
+     * with the project.
+     */
+    private PomDocument pomDocument;
+
+    /**
+     * Whether the POM file has been rewritten without updating the document, so that neither it nor the content read
+     * when parsing reflects the file. This is not copied with the project.
+     */
+    private boolean pomRewritten;
+
     /**
      * Tracking inheritance across the project.
      */
     private Project projectParent;
 
+    /**
+     * The resolved dependency and plugin views, each with the modification counts of the projects it was resolved
+     * from. This is not copied with the project.
+     */
+    private final Map<View, ResolvedView> resolvedViews = new EnumMap<>( View.class );
+
+    /**
+     * Counts the modifications that may affect the resolved views of this project or those inheriting from it.
+     */
+    private final AtomicInteger modificationCount = new AtomicInteger();
+
+    /**
+     * The effective properties of this project for the last session they were requested for. This is not copied
+     * with the project.
+     */
+    private EffectiveProperties effectiveProperties;
+
+    /**
+     * The projects this project inherits from, computed when first requested after the parents are linked. This is
+     * not copied with the project.
+     */
+    private volatile InheritanceChain inheritanceChain;
 
     public Project( final File pom, final Model model ) throws ManipulationException
     {
@@ -107,6 +169,7 @@ public class Project
         {
             throw new ManipulationException( "Invalid model ({}) - cannot find version!" );
         }
+        trackProperties();
     }
 
     /**
@@ -132,10 +195,13 @@ public class Project
         this.inheritanceRoot = original.inheritanceRoot;
         this.executionRoot = original.executionRoot;
         this.incrementalPME = original.incrementalPME;
+        this.pomContent = original.pomContent;
+        this.lineSeparator = original.lineSeparator;
         if ( original.projectParent != null )
         {
             this.projectParent = new Project( original.projectParent );
         }
+        trackProperties();
     }
 
     @Override
@@ -273,18 +339,20 @@ public class Project
      */
     public Map<Profile, Map<ArtifactRef, Dependency>> getResolvedProfileDependencies( MavenSessionHandler session) throws ManipulationException
     {
-        Map<Profile, Map<ArtifactRef, Dependency>> resolvedProfileDependencies = new HashMap<>();
+        return resolveView( View.PROFILE_DEPENDENCIES, session, () -> {
+            Map<Profile, Map<ArtifactRef, Dependency>> resolvedProfileDependencies = new HashMap<>();
 
-        for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-        {
-            Map<ArtifactRef, Dependency> profileDeps = new HashMap<>();
+            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
+            {
+                Map<ArtifactRef, Dependency> profileDeps = new HashMap<>();
 
-            resolveDeps( session, profile.getDependencies(), false, profileDeps );
+                resolveDeps( session, profile.getDependencies(), false, profileDeps );
 
-            resolvedProfileDependencies.put( profile, profileDeps );
-        }
+                resolvedProfileDependencies.put( profile, profileDeps );
+            }
 
-        return resolvedProfileDependencies;
+            return resolvedProfileDependencies;
+        }, Project::unmodifiableProfileViews );
     }
 
     /**
@@ -302,18 +370,20 @@ public class Project
      */
     public Map<Profile, Map<ArtifactRef, Dependency>> getAllResolvedProfileDependencies( MavenSessionHandler session) throws ManipulationException
     {
-        Map<Profile, Map<ArtifactRef, Dependency>> allResolvedProfileDependencies = new HashMap<>();
+        return resolveView( View.ALL_PROFILE_DEPENDENCIES, session, () -> {
+            Map<Profile, Map<ArtifactRef, Dependency>> allResolvedProfileDependencies = new HashMap<>();
 
-        for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-        {
-            Map<ArtifactRef, Dependency> profileDeps = new HashMap<>();
+            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
+            {
+                Map<ArtifactRef, Dependency> profileDeps = new HashMap<>();
 
-            resolveDeps( session, profile.getDependencies(), true, profileDeps );
+                resolveDeps( session, profile.getDependencies(), true, profileDeps );
 
-            allResolvedProfileDependencies.put( profile, profileDeps );
-        }
+                allResolvedProfileDependencies.put( profile, profileDeps );
+            }
 
-        return allResolvedProfileDependencies;
+            return allResolvedProfileDependencies;
+        }, Project::unmodifiableProfileViews );
     }
 
     /**
@@ -328,22 +398,24 @@ public class Project
      */
     public Map<Profile, Map<ArtifactRef, Dependency>> getResolvedProfileManagedDependencies( MavenSessionHandler session) throws ManipulationException
     {
-        Map<Profile, Map<ArtifactRef, Dependency>> resolvedProfileManagedDependencies = new HashMap<>();
+        return resolveView( View.PROFILE_MANAGED_DEPENDENCIES, session, () -> {
+            Map<Profile, Map<ArtifactRef, Dependency>> resolvedProfileManagedDependencies = new HashMap<>();
 
-        for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-        {
-            Map<ArtifactRef, Dependency> profileDeps = new HashMap<>();
+            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
+            {
+                Map<ArtifactRef, Dependency> profileDeps = new HashMap<>();
 
-            final DependencyManagement dm = profile.getDependencyManagement();
+                final DependencyManagement dm = profile.getDependencyManagement();
 
-            if ( dm != null )
-            {
-                resolveDeps( session, dm.getDependencies(), false, profileDeps );
-            }
+                if ( dm != null )
+                {
+                    resolveDeps( session, dm.getDependencies(), false, profileDeps );
+                }
 
-            resolvedProfileManagedDependencies.put( profile, profileDeps );
-        }
-        return resolvedProfileManagedDependencies;
+                resolvedProfileManagedDependencies.put( profile, profileDeps );
+            }
+            return resolvedProfileManagedDependencies;
+        }, Project::unmodifiableProfileViews );
     }
 
 
@@ -358,14 +430,16 @@ public class Project
      */
     public Map<ProjectVersionRef, Plugin> getResolvedPlugins ( MavenSessionHandler session) throws ManipulationException
     {
-        Map<ProjectVersionRef, Plugin> resolvedPlugins = new HashMap<>();
+        return resolveView( View.PLUGINS, session, () -> {
+            Map<ProjectVersionRef, Plugin> resolvedPlugins = new HashMap<>();
 
-        if ( getModel().getBuild() != null )
-        {
-            resolvePlugins( session, getModel().getBuild().getPlugins(), PluginResolver.NONE, resolvedPlugins );
-        }
+            if ( getModel().getBuild() != null )
+            {
+                resolvePlugins( session, getModel().getBuild().getPlugins(), PluginResolver.NONE, resolvedPlugins );
+            }
 
-        return resolvedPlugins;
+            return resolvedPlugins;
+        }, Collections::unmodifiableMap );
     }
 
     /**
@@ -379,14 +453,16 @@ public class Project
      */
     public Map<ProjectVersionRef, Plugin> getAllResolvedPlugins ( MavenSessionHandler session) throws ManipulationException
     {
-        Map<ProjectVersionRef, Plugin> resolvedPlugins = new HashMap<>();
+        return resolveView( View.ALL_PLUGINS, session, () -> {
+            Map<ProjectVersionRef, Plugin> resolvedPlugins = new HashMap<>();
 
-        if ( getModel().getBuild() != null )
-        {
-            resolvePlugins( session, getModel().getBuild().getPlugins(), PluginResolver.ALL, resolvedPlugins );
-        }
+            if ( getModel().getBuild() != null )
+            {
+                resolvePlugins( session, getModel().getBuild().getPlugins(), PluginResolver.ALL, resolvedPlugins );
+            }
 
-        return resolvedPlugins;
+            return resolvedPlugins;
+        }, Collections::unmodifiableMap );
     }
 
     /**
@@ -401,18 +477,20 @@ public class Project
      */
     public Map<ProjectVersionRef, Plugin> getResolvedManagedPlugins ( MavenSessionHandler session) throws ManipulationException
     {
-        Map<ProjectVersionRef, Plugin> resolvedManagedPlugins = new HashMap<>();
+        return resolveView( View.MANAGED_PLUGINS, session, () -> {
+            Map<ProjectVersionRef, Plugin> resolvedManagedPlugins = new HashMap<>();
 
-        if ( getModel().getBuild() != null )
-        {
-            final PluginManagement pm = getModel().getBuild().getPluginManagement();
-            if ( !( pm == null || pm.getPlugins() == null ) )
+            if ( getModel().getBuild() != null )
             {
-                resolvePlugins( session, pm.getPlugins(), PluginResolver.PLUGIN_DEFAULTS, resolvedManagedPlugins );
+                final PluginManagement pm = getModel().getBuild().getPluginManagement();
+                if ( !( pm == null || pm.getPlugins() == null ) )
+                {
+                    resolvePlugins( session, pm.getPlugins(), PluginResolver.PLUGIN_DEFAULTS, resolvedManagedPlugins );
+                }
             }
-        }
 
-        return resolvedManagedPlugins;
+            return resolvedManagedPlugins;
+        }, Collections::unmodifiableMap );
     }
 
     /**
@@ -428,21 +506,23 @@ public class Project
     public Map<Profile,Map<ProjectVersionRef,Plugin>> getResolvedProfilePlugins( MavenSessionHandler session )
                     throws ManipulationException
     {
-        Map<Profile, Map<ProjectVersionRef, Plugin>> resolvedProfilePlugins = new HashMap<>();
+        return resolveView( View.PROFILE_PLUGINS, session, () -> {
+            Map<Profile, Map<ProjectVersionRef, Plugin>> resolvedProfilePlugins = new HashMap<>();
 
-        for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-        {
-            Map<ProjectVersionRef, Plugin> profileDeps = new HashMap<>();
-
-            if ( profile.getBuild() != null )
+            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
             {
-                resolvePlugins( session, profile.getBuild().getPlugins(), PluginResolver.NONE, profileDeps );
+                Map<ProjectVersionRef, Plugin> profileDeps = new HashMap<>();
+
+                if ( profile.getBuild() != null )
+                {
+                    resolvePlugins( session, profile.getBuild().getPlugins(), PluginResolver.NONE, profileDeps );
 
+                }
+                resolvedProfilePlugins.put( profile, profileDeps );
             }
-            resolvedProfilePlugins.put( profile, profileDeps );
-        }
 
-        return resolvedProfilePlugins;
+            return resolvedProfilePlugins;
+        }, Project::unmodifiableProfileViews );
     }
 
     /**
@@ -458,21 +538,23 @@ public class Project
     public Map<Profile,Map<ProjectVersionRef,Plugin>> getAllResolvedProfilePlugins( MavenSessionHandler session )
                     throws ManipulationException
     {
-        Map<Profile, Map<ProjectVersionRef, Plugin>> allResolvedProfilePlugins = new HashMap<>();
+        return resolveView( View.ALL_PROFILE_PLUGINS, session, () -> {
+            Map<Profile, Map<ProjectVersionRef, Plugin>> allResolvedProfilePlugins = new HashMap<>();
 
-        for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-        {
-            Map<ProjectVersionRef, Plugin> profileDeps = new HashMap<>();
-
-            if ( profile.getBuild() != null )
+            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
             {
-                resolvePlugins( session, profile.getBuild().getPlugins(), PluginResolver.ALL, profileDeps );
+                Map<ProjectVersionRef, Plugin> profileDeps = new HashMap<>();
+
+                if ( profile.getBuild() != null )
+                {
+                    resolvePlugins( session, profile.getBuild().getPlugins(), PluginResolver.ALL, profileDeps );
 
+                }
+                allResolvedProfilePlugins.put( profile, profileDeps );
             }
-            allResolvedProfilePlugins.put( profile, profileDeps );
-        }
 
-        return allResolvedProfilePlugins;
+            return allResolvedProfilePlugins;
+        }, Project::unmodifiableProfileViews );
     }
 
     /**
@@ -488,24 +570,26 @@ public class Project
     public Map<Profile,Map<ProjectVersionRef,Plugin>> getResolvedProfileManagedPlugins( MavenSessionHandler session )
                     throws ManipulationException
     {
-        Map<Profile, Map<ProjectVersionRef, Plugin>> resolvedProfileManagedPlugins = new HashMap<>();
-
-        for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-        {
-            Map<ProjectVersionRef, Plugin> profileDeps = new HashMap<>();
+        return resolveView( View.PROFILE_MANAGED_PLUGINS, session, () -> {
+            Map<Profile, Map<ProjectVersionRef, Plugin>> resolvedProfileManagedPlugins = new HashMap<>();
 
-            if ( profile.getBuild() != null )
+            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
             {
-                final PluginManagement pm = profile.getBuild().getPluginManagement();
+                Map<ProjectVersionRef, Plugin> profileDeps = new HashMap<>();
 
-                if ( pm != null )
+                if ( profile.getBuild() != null )
                 {
-                    resolvePlugins( session, pm.getPlugins(), PluginResolver.PLUGIN_DEFAULTS, profileDeps );
+                    final PluginManagement pm = profile.getBuild().getPluginManagement();
+
+                    if ( pm != null )
+                    {
+                        resolvePlugins( session, pm.getPlugins(), PluginResolver.PLUGIN_DEFAULTS, profileDeps );
+                    }
                 }
+                resolvedProfileManagedPlugins.put( profile, profileDeps );
             }
-            resolvedProfileManagedPlugins.put( profile, profileDeps );
-        }
-        return resolvedProfileManagedPlugins;
+            return resolvedProfileManagedPlugins;
+        }, Project::unmodifiableProfileViews );
     }
 
     /**
@@ -521,11 +605,13 @@ public class Project
      */
     public Map<ArtifactRef, Dependency> getResolvedDependencies( MavenSessionHandler session) throws ManipulationException
     {
-        Map<ArtifactRef, Dependency> resolvedDependencies = new HashMap<>();
+        return resolveView( View.DEPENDENCIES, session, () -> {
+            Map<ArtifactRef, Dependency> resolvedDependencies = new HashMap<>();
 
-        resolveDeps( session, getModel().getDependencies(), false, resolvedDependencies );
+            resolveDeps( session, getModel().getDependencies(), false, resolvedDependencies );
 
-        return resolvedDependencies;
+            return resolvedDependencies;
+        }, Collections::unmodifiableMap );
     }
 
 
@@ -543,11 +629,13 @@ public class Project
      */
     public Map<ArtifactRef, Dependency> getAllResolvedDependencies( MavenSessionHandler session ) throws ManipulationException
     {
-        Map<ArtifactRef, Dependency> allResolvedDependencies = new HashMap<>();
+        return resolveView( View.ALL_DEPENDENCIES, session, () -> {
+            Map<ArtifactRef, Dependency> allResolvedDependencies = new HashMap<>();
 
-        resolveDeps( session, getModel().getDependencies(), true, allResolvedDependencies );
+            resolveDeps( session, getModel().getDependencies(), true, allResolvedDependencies );
 
-        return allResolvedDependencies;
+            return allResolvedDependencies;
+        }, Collections::unmodifiableMap );
     }
 
 
@@ -567,48 +655,50 @@ public class Project
      */
     public List<Map<ArtifactRef, Dependency>> getAllResolvedPluginDependencies( MavenSessionHandler session ) throws ManipulationException
     {
-        List<Map<ArtifactRef, Dependency>> allResolvedDependencies = new ArrayList<>();
+        return resolveView( View.PLUGIN_DEPENDENCIES, session, () -> {
+            List<Map<ArtifactRef, Dependency>> allResolvedDependencies = new ArrayList<>();
 
-        if ( getModel().getBuild() != null )
-        {
-            for (Plugin p : getModel().getBuild().getPlugins())
+            if ( getModel().getBuild() != null )
             {
-                Map<ArtifactRef, Dependency> dependencies = new HashMap<>();
-                resolveDeps( session, p.getDependencies(), false, dependencies );
-                allResolvedDependencies.add( dependencies );
-            }
-            if ( getModel().getBuild().getPluginManagement() != null )
-            {
-                for (Plugin p : getModel().getBuild().getPluginManagement().getPlugins())
+                for (Plugin p : getModel().getBuild().getPlugins())
                 {
                     Map<ArtifactRef, Dependency> dependencies = new HashMap<>();
                     resolveDeps( session, p.getDependencies(), false, dependencies );
                     allResolvedDependencies.add( dependencies );
                 }
-            }
-        }
-        for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
-        {
-            if ( profile.getBuild() != null )
-            {
-                for (Plugin p : profile.getBuild().getPlugins())
+                if ( getModel().getBuild().getPluginManagement() != null )
                 {
-                    Map<ArtifactRef, Dependency> dependencies = new HashMap<>();
-                    resolveDeps( session, p.getDependencies(), false, dependencies );
-                    allResolvedDependencies.add( dependencies );
+                    for (Plugin p : getModel().getBuild().getPluginManagement().getPlugins())
+                    {
+                        Map<ArtifactRef, Dependency> dependencies = new HashMap<>();
+                        resolveDeps( session, p.getDependencies(), false, dependencies );
+                        allResolvedDependencies.add( dependencies );
+                    }
                 }
-                if (profile.getBuild().getPluginManagement() != null)
+            }
+            for ( final Profile profile : ProfileUtils.getProfiles( session, model ) )
+            {
+                if ( profile.getBuild() != null )
                 {
-                    for (Plugin p : profile.getBuild().getPluginManagement().getPlugins())
+                    for (Plugin p : profile.getBuild().getPlugins())
                     {
                         Map<ArtifactRef, Dependency> dependencies = new HashMap<>();
                         resolveDeps( session, p.getDependencies(), false, dependencies );
                         allResolvedDependencies.add( dependencies );
                     }
+                    if (profile.getBuild().getPluginManagement() != null)
+                    {
+                        for (Plugin p : profile.getBuild().getPluginManagement().getPlugins())
+                        {
+                            Map<ArtifactRef, Dependency> dependencies = new HashMap<>();
+                            resolveDeps( session, p.getDependencies(), false, dependencies );
+                            allResolvedDependencies.add( dependencies );
+                        }
+                    }
                 }
             }
-        }
-        return allResolvedDependencies;
+            return allResolvedDependencies;
+        }, Project::unmodifiableViews );
     }
 
 
@@ -623,17 +713,220 @@ public class Project
      */
     public Map<ArtifactRef, Dependency> getResolvedManagedDependencies( MavenSessionHandler session ) throws ManipulationException
     {
-        Map<ArtifactRef, Dependency> resolvedManagedDependencies = new HashMap<>();
+        return resolveView( View.MANAGED_DEPENDENCIES, session, () -> {
+            Map<ArtifactRef, Dependency> resolvedManagedDependencies = new HashMap<>();
+
+            final DependencyManagement dm = getModel().getDependencyManagement();
+            if ( !( dm == null || dm.getDependencies() == null ) )
+            {
+                resolveDeps( session, dm.getDependencies(), false, resolvedManagedDependencies );
+            }
 
-        final DependencyManagement dm = getModel().getDependencyManagement();
-        if ( !( dm == null || dm.getDependencies() == null ) )
+            return resolvedManagedDependencies;
+        }, Collections::unmodifiableMap );
+    }
+
+
+    /**
+     * Resolving the views interpolates every coordinate so each view is reused until anything it may have been
+     * resolved from changes, as detected by the modification count of every project it inherits from. The views are
+     * unmodifiable, so callers that change them must copy them first.
+     */
+    private synchronized <T> T resolveView( View view, MavenSessionHandler session, Resolver<T> resolver,
+                                            UnaryOperator<T> unmodifiable )
+                    throws ManipulationException
+    {
+        final ResolvedView cached = resolvedViews.get( view );
+        final InheritanceChain chain = getInheritanceChain();
+
+        if ( cached != null && cached.isCurrent( session, chain ) )
         {
-            resolveDeps( session, dm.getDependencies(), false, resolvedManagedDependencies );
+            @SuppressWarnings( "unchecked" )
+            final T value = (T) cached.value;
+            return value;
         }
 
-        return resolvedManagedDependencies;
+        final T value = unmodifiable.apply( resolver.resolve() );
+        // Resolving may remove duplicate entries from the model so the counts are taken afterwards.
+        resolvedViews.put( view, new ResolvedView( session, chain, value ) );
+        return value;
+    }
+
+    /**
+     * Records that the model has been changed in a way that may affect the resolved dependencies and plugins of this
+     * project or those inheriting from it, e.g. a version has been set, so that they are resolved again. Changes to
+     * the properties are recorded automatically.
+     */
+    public void modified()
+    {
+        // Any profiles that have been added since are tracked as well.
+        trackProperties();
+        countModification();
+    }
+
+    void countModification()
+    {
+        modificationCount.incrementAndGet();
     }
 
+    private static <K, V> Map<Profile, Map<K, V>> unmodifiableProfileViews( Map<Profile, Map<K, V>> views )
+    {
+        views.replaceAll( ( profile, view ) -> Collections.unmodifiableMap( view ) );
+        return Collections.unmodifiableMap( views );
+    }
+
+    private static <K, V> List<Map<K, V>> unmodifiableViews( List<Map<K, V>> views )
+    {
+        views.replaceAll( Collections::unmodifiableMap );
+        return Collections.unmodifiableList( views );
+    }
+
+    /**
+     * Replaces the properties of the model and its profiles so that their modifications are tracked by this project.
+     */
+    private void trackProperties()
+    {
+        if ( !isTracked( model.getProperties() ) )
+        {
+            model.setProperties( new TrackedProperties( model.getProperties(), this ) );
+        }
+        for ( Profile profile : model.getProfiles() )
+        {
+            if ( !isTracked( profile.getProperties() ) )
+            {
+                profile.setProperties( new TrackedProperties( profile.getProperties(), this ) );
+            }
+        }
+    }
+
+    private boolean isTracked( Properties properties )
+    {
+        return properties instanceof TrackedProperties && ( (TrackedProperties) properties ).isOwnedBy( this );
+    }
+
+    @FunctionalInterface
+    private interface Resolver<T>
+    {
+        T resolve() throws ManipulationException;
+    }
+
+    private static final class ResolvedView
+    {
+        private final MavenSessionHandler session;
+
+        private final InheritanceChain chain;
+
+        private final int[] counts;
+
+        private final Object value;
+
+        private ResolvedView( MavenSessionHandler session, InheritanceChain chain, Object value )
+        {
+            this.session = session;
+            this.chain = chain;
+            this.counts = new int[chain.projects.length];
+            this.value = value;
+
+            for ( int i = 0; i < counts.length; i++ )
+            {
+                counts[i] = chain.projects[i].modificationCount.get();
+            }
+        }
+
+        private boolean isCurrent( MavenSessionHandler session, InheritanceChain chain )
+        {
+            if ( this.session != session || this.chain != chain )
+            {
+                return false;
+            }
+            for ( int i = 0; i < counts.length; i++ )
+            {
+                if ( counts[i] != chain.projects[i].modificationCount.get() )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The inheritance chain of a project, from the root project down, with a view of it in reverse.
+     */
+    private static final class InheritanceChain
+    {
+        private final Project[] projects;
+
+        private final List<Project> inherited;
+
+        private final List<Project> reverseInherited;
+
+        private InheritanceChain( Project project )
+        {
+            int depth = 0;
+            for ( Project p = project; p != null; p = p.getProjectParent() )
+            {
+                depth++;
+            }
+
+            projects = new Project[depth];
+            for ( Project p = project; p != null; p = p.getProjectParent() )
+            {
+                // Place inherited first so latter down tree take precedence.
+                projects[--depth] = p;
+            }
+
+            inherited = Collections.unmodifiableList( Arrays.asList( projects ) );
+            reverseInherited = new ReverseList( projects );
+        }
+
+        /**
+         * @return true if no project within the chain has had its parent changed since it was computed.
+         */
+        private boolean isCurrent()
+        {
+            if ( projects[0].getProjectParent() != null )
+            {
+                return false;
+            }
+            for ( int i = 1; i < projects.length; i++ )
+            {
+                if ( projects[i].getProjectParent() != projects[i - 1] )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class ReverseList
+                    extends AbstractList<Project>
+                    implements RandomAccess
+    {
+        private final Project[] projects;
+
+        private ReverseList( Project[] projects )
+        {
+            this.projects = projects;
+        }
+
+        @Override
+        public Project get( int index )
+        {
+            if ( index < 0 || index >= projects.length )
+            {
+                throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + projects.length );
+            }
+            return projects[projects.length - 1 - index];
+        }
+
+        @Override
+        public int size()
+        {
+            return projects.length;
+        }
+    }
 
     private void resolveDeps( MavenSessionHandler session, List<Dependency> deps, boolean includeManagedDependencies,
                               Map<ArtifactRef, Dependency> resolvedDependencies )
@@ -675,6 +968,7 @@ public class Project
                 {
                     logger.error( "Found duplicate entry within dependency list. Key of {} and dependency {}", sar, d );
                     iterator.remove();
+                    countModification();
                 }
                 else
                 {
@@ -748,6 +1042,7 @@ public class Project
                 {
                     logger.error( "Found duplicate entry within plugin list. Key of {} and plugin {}", spv, p );
                     iterator.remove();
+                    countModification();
                 }
                 else
                 {
@@ -802,9 +1097,69 @@ public class Project
         return incrementalPME;
     }
 
+    /**
+     * @param pomContent the content of the POM file as read when parsing it.
+     */
+    public void setPomContent( byte[] pomContent )
+    {
+        this.pomContent = pomContent;
+    }
+
+    /**
+     * Returns the content of the POM file as it was when parsed, so that it need not be read again. This does not
+     * reflect any later changes to the model or the file.
+     * @return the content, or null if the project was not parsed from a file.
+     */
+    public byte[] getPomContent()
+    {
+        return pomContent;
+    }
+
+    public void setLineSeparator( LineSeparator lineSeparator )
+    {
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * @return the line separator used by the POM file, or null if it is not known.
+     */
+    public LineSeparator getLineSeparator()
+    {
+        return lineSeparator;
+    }
+
+    public void setPomDocument( PomDocument pomDocument )
+    {
+        this.pomDocument = pomDocument;
+    }
+
+    /**
+     * @return the document parsed from the POM file, or null if it is not known.
+     */
+    public PomDocument getPomDocument()
+    {
+        return pomDocument;
+    }
+
+    public void setPomRewritten( boolean pomRewritten )
+    {
+        this.pomRewritten = pomRewritten;
+    }
+
+    /**
+     * @return whether the POM file has been rewritten since it was parsed without updating the document, in which
+     * case its content is not known.
+     */
+    public boolean isPomRewritten()
+    {
+        return pomRewritten;
+    }
+
     public void setProjectParent( Project parent )
     {
         this.projectParent = parent;
+        this.inheritanceChain = null;
+        countModification();
     }
 
     public Project getProjectParent()
@@ -813,39 +1168,54 @@ public class Project
     }
 
     /**
-     * @return inherited projects. Returned with order of root project first, down to this project.
+     * Returns the effective properties of this project, layered over those of its parents, bringing them up to date
+     * with any modified properties first.
+     *
+     * @param session the current session, which determines the active profiles.
+     * @return the effective properties.
      */
-    public List<Project> getInheritedList()
+    public synchronized EffectiveProperties getEffectiveProperties( MavenSessionHandler session )
     {
-        final List<Project> found = new ArrayList<>(  );
-        found.add( this );
+        final EffectiveProperties parent =
+                        projectParent == null ? null : projectParent.getEffectiveProperties( session );
 
-        Project loop = this;
-        while ( loop.getProjectParent() != null)
+        if ( effectiveProperties == null || !effectiveProperties.isFor( session, parent ) )
         {
-            // Place inherited first so latter down tree take precedence.
-            found.add( 0, loop.getProjectParent() );
-            loop = loop.getProjectParent();
+            effectiveProperties = new EffectiveProperties( this, parent, session );
         }
-        return found;
+        effectiveProperties.refresh();
+
+        return effectiveProperties;
     }
 
     /**
-     * @return inherited projects. Returned with order of this project first, up to root project.
+     * @return inherited projects. Returned with order of root project first, down to this project. The list is
+     * unmodifiable and is reused until the parent of any project within it changes.
+     */
+    public List<Project> getInheritedList()
+    {
+        return getInheritanceChain().inherited;
+    }
+
+    /**
+     * @return inherited projects. Returned with order of this project first, up to root project. The list is
+     * unmodifiable and is reused until the parent of any project within it changes.
      */
     public List<Project> getReverseInheritedList()
     {
-        final List<Project> found = new ArrayList<>(  );
-        found.add( this );
+        return getInheritanceChain().reverseInherited;
+    }
+
+    private InheritanceChain getInheritanceChain()
+    {
+        InheritanceChain chain = inheritanceChain;
 
-        Project loop = this;
-        while ( loop.getProjectParent() != null)
+        if ( chain == null || !chain.isCurrent() )
         {
-            // Place inherited last for iteration purposes
-            found.add( loop.getProjectParent() );
-            loop = loop.getProjectParent();
+            chain = new InheritanceChain( this );
+            inheritanceChain = chain;
         }
-        return found;
+        return chain;
     }
 
     public void updateProfiles (List<Profile> remoteProfiles)
@@ -887,6 +1257,7 @@ public class Project
                 logger.debug( "Adding profile {}", profile );
                 profiles.add( profile );
             }
+            trackProperties( model );
         }
     }
 }
@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.model;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Properties that count how many times they have been modified, so that values derived from them may be reused
+ * until they change. Every {@link Project} replaces the properties of its model, and those of its profiles, with
+ * these when it is created, and counts their modifications as its own.
+ * <p>
+ * Modifications made through the key, value and entry set views, their iterators and entries are counted as well.
+ */
+public class TrackedProperties
+                extends Properties
+{
+    private static final long serialVersionUID = 1L;
+
+    private volatile int modificationCount;
+
+    private final transient Project owner;
+
+    public TrackedProperties( Properties properties )
+    {
+        this( properties, null );
+    }
+
+    /**
+     * @param properties the properties to copy.
+     * @param owner the project whose model contains the properties, which is also told of every modification ; may
+     * be null.
+     */
+    public TrackedProperties( Properties properties, Project owner )
+    {
+        if ( properties != null )
+        {
+            super.putAll( properties );
+        }
+        this.owner = owner;
+    }
+
+    /**
+     * @return the number of times the properties have been modified.
+     */
+    public int getModificationCount()
+    {
+        return modificationCount;
+    }
+
+    /**
+     * @param project the project to check.
+     * @return true if the modifications are counted by the project, which is not the case for a clone of the model.
+     */
+    boolean isOwnedBy( Project project )
+    {
+        return owner == project;
+    }
+
+    @Override
+    public synchronized Object put( Object key, Object value )
+    {
+        modified();
+        return super.put( key, value );
+    }
+
+    @Override
+    public synchronized void putAll( Map<?, ?> t )
+    {
+        modified();
+        super.putAll( t );
+    }
+
+    @Override
+    public synchronized Object remove( Object key )
+    {
+        modified();
+        return super.remove( key );
+    }
+
+    @Override
+    public synchronized boolean remove( Object key, Object value )
+    {
+        modified();
+        return super.remove( key, value );
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        modified();
+        super.clear();
+    }
+
+    @Override
+    public synchronized Object putIfAbsent( Object key, Object value )
+    {
+        modified();
+        return super.putIfAbsent( key, value );
+    }
+
+    @Override
+    public synchronized Object replace( Object key, Object value )
+    {
+        modified();
+        return super.replace( key, value );
+    }
+
+    @Override
+    public synchronized boolean replace( Object key, Object oldValue, Object newValue )
+    {
+        modified();
+        return super.replace( key, oldValue, newValue );
+    }
+
+    @Override
+    public synchronized void replaceAll( BiFunction<? super Object, ? super Object, ?> function )
+    {
+        modified();
+        super.replaceAll( function );
+    }
+
+    @Override
+    public synchronized Object compute( Object key,
+                                        BiFunction<? super Object, ? super Object, ?> remappingFunction )
+    {
+        modified();
+        return super.compute( key, remappingFunction );
+    }
+
+    @Override
+    public synchronized Object computeIfAbsent( Object key, Function<? super Object, ?> mappingFunction )
+    {
+        modified();
+        return super.computeIfAbsent( key, mappingFunction );
+    }
+
+    @Override
+    public synchronized Object computeIfPresent( Object key,
+                                                 BiFunction<? super Object, ? super Object, ?> remappingFunction )
+    {
+        modified();
+        return super.computeIfPresent( key, remappingFunction );
+    }
+
+    @Override
+    public synchronized Object merge( Object key, Object value,
+                                      BiFunction<? super Object, ? super Object, ?> remappingFunction )
+    {
+        modified();
+        return super.merge( key, value, remappingFunction );
+    }
+
+    @Override
+    public Set<Object> keySet()
+    {
+        return new TrackedSet<>( super.keySet() );
+    }
+
+    @Override
+    public Collection<Object> values()
+    {
+        return new TrackedCollection<>( super.values() );
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet()
+    {
+        return new TrackedSet<Map.Entry<Object, Object>>( super.entrySet() )
+        {
+            @Override
+            Map.Entry<Object, Object> wrap( Map.Entry<Object, Object> entry )
+            {
+                return new TrackedEntry( entry );
+            }
+        };
+    }
+
+    private synchronized void modified()
+    {
+        modificationCount++;
+        if ( owner != null )
+        {
+            owner.countModification();
+        }
+    }
+
+    /**
+     * A view of the properties that counts the modifications made through it.
+     */
+    private class TrackedCollection<E>
+                    extends AbstractCollection<E>
+    {
+        final Collection<E> delegate;
+
+        TrackedCollection( Collection<E> delegate )
+        {
+            this.delegate = delegate;
+        }
+
+        E wrap( E element )
+        {
+            return element;
+        }
+
+        @Override
+        public Iterator<E> iterator()
+        {
+            final Iterator<E> iterator = delegate.iterator();
+
+            return new Iterator<E>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public E next()
+                {
+                    return wrap( iterator.next() );
+                }
+
+                @Override
+                public void remove()
+                {
+                    modified();
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return delegate.size();
+        }
+
+        @Override
+        public boolean contains( Object o )
+        {
+            return delegate.contains( o );
+        }
+
+        @Override
+        public boolean remove( Object o )
+        {
+            modified();
+            return delegate.remove( o );
+        }
+
+        @Override
+        public boolean removeAll( Collection<?> c )
+        {
+            modified();
+            return delegate.removeAll( c );
+        }
+
+        @Override
+        public boolean retainAll( Collection<?> c )
+        {
+            modified();
+            return delegate.retainAll( c );
+        }
+
+        @Override
+        public boolean removeIf( Predicate<? super E> filter )
+        {
+            modified();
+            return delegate.removeIf( filter );
+        }
+
+        @Override
+        public void clear()
+        {
+            modified();
+            delegate.clear();
+        }
+    }
+
+    private class TrackedSet<E>
+                    extends TrackedCollection<E>
+                    implements Set<E>
+    {
+        TrackedSet( Set<E> delegate )
+        {
+            super( delegate );
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            return o == this || delegate.equals( o );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return delegate.hashCode();
+        }
+    }
+
+    private class TrackedEntry
+                    implements Map.Entry<Object, Object>
+    {
+        private final Map.Entry<Object, Object> entry;
+
+        TrackedEntry( Map.Entry<Object, Object> entry )
+        {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object getKey()
+        {
+            return entry.getKey();
+        }
+
+        @Override
+        public Object getValue()
+        {
+            return entry.getValue();
+        }
+
+        @Override
+        public Object setValue( Object value )
+        {
+            modified();
+            return entry.setValue( value );
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            return entry.equals( o instanceof TrackedEntry ? ( (TrackedEntry) o ).entry : o );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return entry.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return entry.toString();
+        }
+    }
+}
@@ -22,7 +22,13 @@ import org.commonjava.maven.ext.annotation.ConfigValue;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * Commonly used manipulations from project profiles.
@@ -38,29 +44,126 @@ public final class ProfileUtils
 
     public static String PROFILE_SCANNING_DEFAULT = "true";
 
+    /**
+     * The profiles to scan for each session, held weakly so that they are released with the session.
+     */
+    private static final Map<MavenSessionHandler, SessionProfiles> SESSION_PROFILES =
+                    Collections.synchronizedMap( new WeakHashMap<>() );
+
+    /**
+     * Returns the profiles of the model that should be scanned: either those that are active within the session, or
+     * all of them if {@link #PROFILE_SCANNING} is disabled. The result is computed once and reused until the active
+     * profiles, the scanning property or the profiles of the model change.
+     *
+     * @param session the current session.
+     * @param model the model.
+     * @return an unmodifiable list of the profiles, in the order they are declared.
+     */
     public static List<Profile> getProfiles ( MavenSessionHandler session, Model model)
     {
-        final List<Profile> result = new ArrayList<>( );
-        final List<Profile> profiles = model.getProfiles();
-        final boolean scanActiveProfiles = Boolean.parseBoolean( session.getUserProperties().getProperty( PROFILE_SCANNING, PROFILE_SCANNING_DEFAULT ) );
+        SessionProfiles sessionProfiles = SESSION_PROFILES.get( session );
+
+        if ( sessionProfiles == null || !sessionProfiles.isCurrent( session ) )
+        {
+            sessionProfiles = new SessionProfiles( session );
+            SESSION_PROFILES.put( session, sessionProfiles );
+        }
+        return sessionProfiles.getProfiles( model );
+    }
+
+    /**
+     * The active profile ids of a session, indexed for lookup, with the profiles selected from each model.
+     */
+    private static final class SessionProfiles
+    {
+        private final String scanning;
+
+        private final String scanningDefault;
+
+        private final boolean scanActiveProfiles;
+
+        private final List<String> activeProfiles;
+
+        private final Set<String> activeIds;
+
+        private final Map<Model, ModelProfiles> models = new WeakHashMap<>();
+
+        private SessionProfiles( MavenSessionHandler session )
+        {
+            scanning = session.getUserProperties().getProperty( PROFILE_SCANNING );
+            scanningDefault = PROFILE_SCANNING_DEFAULT;
+            scanActiveProfiles = Boolean.parseBoolean( scanning == null ? scanningDefault : scanning );
+            activeProfiles = new ArrayList<>( session.getActiveProfiles() );
+            activeIds = new HashSet<>( activeProfiles );
+        }
+
+        private boolean isCurrent( MavenSessionHandler session )
+        {
+            return Objects.equals( scanning, session.getUserProperties().getProperty( PROFILE_SCANNING ) )
+                            && Objects.equals( scanningDefault, PROFILE_SCANNING_DEFAULT )
+                            && activeProfiles.equals( session.getActiveProfiles() );
+        }
+
+        private synchronized List<Profile> getProfiles( Model model )
+        {
+            ModelProfiles modelProfiles = models.get( model );
+
+            if ( modelProfiles == null || !modelProfiles.isCurrent( model ) )
+            {
+                modelProfiles = new ModelProfiles( model, scanActiveProfiles, activeIds );
+                models.put( model, modelProfiles );
+            }
+            return modelProfiles.selected;
+        }
+    }
+
+    /**
+     * The profiles selected from a model, with the profiles and ids they were selected from.
+     */
+    private static final class ModelProfiles
+    {
+        private final List<Profile> source;
+
+        private final Profile[] profiles;
 
-        if ( profiles != null )
+        private final String[] ids;
+
+        private final List<Profile> selected;
+
+        private ModelProfiles( Model model, boolean scanActiveProfiles, Set<String> activeIds )
         {
-            if ( scanActiveProfiles )
+            final List<Profile> result = new ArrayList<>();
+
+            source = model.getProfiles();
+            profiles = source.toArray( new Profile[0] );
+            ids = new String[profiles.length];
+
+            for ( int i = 0; i < profiles.length; i++ )
             {
-                for ( Profile p : profiles )
+                ids[i] = profiles[i].getId();
+
+                if ( !scanActiveProfiles || activeIds.contains( ids[i] ) )
                 {
-                    if ( session.getActiveProfiles().contains( p.getId() ) )
-                    {
-                        result.add( p );
-                    }
+                    result.add( profiles[i] );
                 }
             }
-            else
+            selected = Collections.unmodifiableList( result );
+        }
+
+        private boolean isCurrent( Model model )
+        {
+            if ( model.getProfiles() != source || source.size() != profiles.length )
+            {
+                return false;
+            }
+            for ( int i = 0; i < profiles.length; i++ )
             {
-                result.addAll( profiles );
+                if ( source.get( i ) != profiles[i] || !Objects.equals( profiles[i].getId(), ids[i] ) )
+                {
+                    return false;
+                }
             }
+            return true;
         }
-        return result;
     }
 }
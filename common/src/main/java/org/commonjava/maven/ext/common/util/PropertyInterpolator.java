@@ -20,17 +20,55 @@ import org.codehaus.plexus.interpolation.PrefixAwareRecursionInterceptor;
 import org.codehaus.plexus.interpolation.PrefixedObjectValueSource;
 import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
 import org.codehaus.plexus.interpolation.StringSearchInterpolator;
+import org.codehaus.plexus.interpolation.ValueSource;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.model.Project;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Interpolates values against properties and an object (normally the {@link Project}), which may be referred to
+ * with a <code>project</code> or <code>pom</code> prefix.
+ * <p>
+ * Values without any expression are returned as they are. Otherwise the value is parsed once into segments, which
+ * are cached, and resolved in the same manner as {@link StringSearchInterpolator} with a
+ * {@link PrefixAwareRecursionInterceptor} would, but with the coordinates of a project read directly rather than by
+ * reflection. A value containing an expression cycle is passed to the interpolator itself so that the same error
+ * is reported.
+ */
 public class PropertyInterpolator
 {
+    private static final String START_EXPR = "${";
+
+    private static final String END_EXPR = "}";
+
+    // According to https://maven.apache.org/guides/introduction/introduction-to-the-pom.html
+    // the prefix project and the deprecated prefix pom are possible.
+    private static final List<String> PREFIXES = Arrays.asList( "pom", "project" );
+
+    /**
+     * Limits the number of parsed values that are cached by each interpolator.
+     */
+    private static final int MAX_COMPILED = 8192;
+
+    private enum Accessor { NONE, GROUP_ID, ARTIFACT_ID, VERSION }
+
     private final StringSearchInterpolator interp = new StringSearchInterpolator();
     private final PrefixAwareRecursionInterceptor ri;
 
+    private final Properties props;
+    private final Object objectValueSource;
+    private final ValueSource objectValues;
+
+    private final Map<String, Segment[]> compiled = new ConcurrentHashMap<>();
+
     public PropertyInterpolator( Properties props, Object objectValueSource )
     {
         if ( props != null )
@@ -38,15 +76,40 @@ public class PropertyInterpolator
             interp.addValueSource( new PropertiesBasedValueSource( props ) );
         }
 
-        // According to https://maven.apache.org/guides/introduction/introduction-to-the-pom.html
-        // the prefix project and the deprecated prefix pom are possible.
-        final List<String> prefixes = Arrays.asList( "pom", "project" );
+        this.props = props;
+        this.objectValueSource = objectValueSource;
+        this.objectValues = new PrefixedObjectValueSource( PREFIXES, objectValueSource, true );
 
-        ri = new PrefixAwareRecursionInterceptor( prefixes, true );
-        interp.addValueSource( new PrefixedObjectValueSource( prefixes, objectValueSource, true ) );
+        ri = new PrefixAwareRecursionInterceptor( PREFIXES, true );
+        interp.addValueSource( objectValues );
     }
 
+    /**
+     * Interpolates the value. This may be called concurrently as an interpolator may be reused, e.g. for the
+     * effective properties of a project.
+     *
+     * @param value the value to interpolate.
+     * @return the interpolated value.
+     * @throws ManipulationException if an error occurs.
+     */
     public String interp( String value ) throws ManipulationException
+    {
+        if ( value != null && !value.contains( START_EXPR ) )
+        {
+            return value;
+        }
+        else if ( value != null )
+        {
+            final String result = resolve( compile( value ), null );
+            if ( result != null )
+            {
+                return result;
+            }
+        }
+        return interpolate( value );
+    }
+
+    private synchronized String interpolate( String value ) throws ManipulationException
     {
         try
         {
@@ -56,5 +119,245 @@ public class PropertyInterpolator
         {
             throw new ManipulationException( "Failed to interpolate: {}. Reason: {}", value, e.getMessage(), e );
         }
+        finally
+        {
+            interp.clearFeedback();
+        }
+    }
+
+    /**
+     * Resolves the segments of a value.
+     *
+     * @param segments the parsed value.
+     * @param resolving the expressions, without prefix, that are being resolved ; null at the top level.
+     * @return the resolved value, or null if an expression cycle was found.
+     */
+    private String resolve( Segment[] segments, Deque<String> resolving )
+    {
+        final StringBuilder result = new StringBuilder();
+
+        for ( Segment segment : segments )
+        {
+            if ( segment.wholeExpr == null )
+            {
+                result.append( segment.text );
+                continue;
+            }
+            if ( resolving != null && resolving.contains( segment.nakedExpr ) )
+            {
+                return null;
+            }
+
+            // A value that refers to the expression itself is skipped in favour of a later source, as the
+            // interpolator does, and is a cycle if no other source has a value.
+            boolean cyclic = false;
+            String value = props == null ? null : props.getProperty( segment.text );
+
+            if ( value != null && value.contains( segment.wholeExpr ) )
+            {
+                value = null;
+                cyclic = true;
+            }
+            if ( value == null )
+            {
+                final Object object = getObjectValue( segment );
+
+                if ( object != null && object.toString().contains( segment.wholeExpr ) )
+                {
+                    cyclic = true;
+                }
+                else if ( object != null )
+                {
+                    value = String.valueOf( object );
+                }
+            }
+
+            if ( value == null && cyclic )
+            {
+                return null;
+            }
+            else if ( value == null )
+            {
+                result.append( segment.wholeExpr );
+            }
+            else if ( value.contains( START_EXPR ) )
+            {
+                final Deque<String> nested = resolving == null ? new ArrayDeque<>() : resolving;
+
+                nested.push( segment.nakedExpr );
+                final String resolved = resolve( compile( value ), nested );
+                nested.pop();
+
+                if ( resolved == null )
+                {
+                    return null;
+                }
+                result.append( resolved );
+            }
+            else
+            {
+                result.append( value );
+            }
+        }
+        return result.toString();
+    }
+
+    private Object getObjectValue( Segment segment )
+    {
+        if ( segment.accessor != Accessor.NONE && objectValueSource instanceof Project )
+        {
+            final Project project = (Project) objectValueSource;
+
+            try
+            {
+                switch ( segment.accessor )
+                {
+                    case GROUP_ID:
+                        return project.getGroupId();
+                    case ARTIFACT_ID:
+                        return project.getArtifactId();
+                    default:
+                        return project.getVersion();
+                }
+            }
+            catch ( RuntimeException e )
+            {
+                // As with reflection, an invalid model has no value.
+                return null;
+            }
+        }
+
+        synchronized ( objectValues )
+        {
+            try
+            {
+                return objectValues.getValue( segment.text );
+            }
+            finally
+            {
+                objectValues.clearFeedback();
+            }
+        }
+    }
+
+    private Segment[] compile( String value )
+    {
+        Segment[] result = compiled.get( value );
+
+        if ( result == null )
+        {
+            result = parse( value );
+            if ( compiled.size() < MAX_COMPILED )
+            {
+                compiled.put( value, result );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Splits the value into literal text and expressions, scanning for them as {@link StringSearchInterpolator}
+     * does.
+     */
+    private static Segment[] parse( String value )
+    {
+        final List<Segment> result = new ArrayList<>();
+        int endIdx = -1;
+        int startIdx;
+
+        while ( ( startIdx = value.indexOf( START_EXPR, endIdx + 1 ) ) > -1 )
+        {
+            if ( startIdx > endIdx + 1 )
+            {
+                result.add( new Segment( value.substring( endIdx + 1, startIdx ) ) );
+            }
+
+            endIdx = value.indexOf( END_EXPR, startIdx + 1 );
+            if ( endIdx < 0 )
+            {
+                break;
+            }
+
+            final String wholeExpr = value.substring( startIdx, endIdx + END_EXPR.length() );
+            String realExpr = wholeExpr.substring( START_EXPR.length(), wholeExpr.length() - END_EXPR.length() );
+            if ( realExpr.startsWith( "." ) )
+            {
+                realExpr = realExpr.substring( 1 );
+            }
+            result.add( new Segment( wholeExpr, realExpr ) );
+
+            endIdx += END_EXPR.length() - 1;
+        }
+
+        if ( endIdx == -1 && startIdx > -1 )
+        {
+            result.add( new Segment( value.substring( startIdx ) ) );
+        }
+        else if ( endIdx < value.length() - 1 )
+        {
+            result.add( new Segment( value.substring( endIdx + 1 ) ) );
+        }
+        return result.toArray( new Segment[0] );
+    }
+
+    /**
+     * @return the expression without any prefix, as the value source and recursion interceptor see it.
+     */
+    private static String trimPrefix( String expression )
+    {
+        for ( String prefix : PREFIXES )
+        {
+            if ( expression.startsWith( prefix ) )
+            {
+                final String result = expression.substring( prefix.length() );
+                return result.startsWith( "." ) ? result.substring( 1 ) : result;
+            }
+        }
+        return expression;
+    }
+
+    /**
+     * Either literal text, or an expression with the accessor for the object value it may refer to.
+     */
+    private static final class Segment
+    {
+        private final String text;
+
+        private final String wholeExpr;
+
+        private final String nakedExpr;
+
+        private final Accessor accessor;
+
+        private Segment( String text )
+        {
+            this.text = text;
+            this.wholeExpr = null;
+            this.nakedExpr = null;
+            this.accessor = Accessor.NONE;
+        }
+
+        private Segment( String wholeExpr, String realExpr )
+        {
+            this.text = realExpr;
+            this.wholeExpr = wholeExpr;
+            this.nakedExpr = trimPrefix( realExpr );
+
+            switch ( nakedExpr )
+            {
+                case "groupId":
+                    accessor = Accessor.GROUP_ID;
+                    break;
+                case "artifactId":
+                    accessor = Accessor.ARTIFACT_ID;
+                    break;
+                case "version":
+                    accessor = Accessor.VERSION;
+                    break;
+                default:
+                    accessor = Accessor.NONE;
+                    break;
+            }
+        }
     }
 }
@@ -85,6 +85,15 @@ public final class PropertyResolver
      */
     public static String resolveProperties( MavenSessionHandler session, List<Project> projects, String value ) throws ManipulationException
     {
+        // The inheritance chain of a project is by far the most common, for which its effective properties may be
+        // used rather than merging the properties of the chain again.
+        if ( isInheritedList( projects ) )
+        {
+            final PropertyInterpolator pi =
+                            projects.get( projects.size() - 1 ).getEffectiveProperties( session ).getInterpolator();
+            return pi.interp( value );
+        }
+
         final Properties amalgamated = new Properties();
 
         // The projects passed in are in a crafted order (determined by Project::getInherited or getReverseInherited)
@@ -97,4 +106,24 @@ public final class PropertyResolver
         PropertyInterpolator pi = new PropertyInterpolator( amalgamated, projects.get( 0 ) );
         return pi.interp( value );
     }
+
+    /**
+     * @return true if the projects are the inheritance chain of the last, ordered from the root project down, as
+     * returned by {@link Project#getInheritedList()}.
+     */
+    private static boolean isInheritedList( List<Project> projects )
+    {
+        if ( projects.isEmpty() || projects.get( 0 ).getProjectParent() != null )
+        {
+            return false;
+        }
+        for ( int i = 1; i < projects.size(); i++ )
+        {
+            if ( projects.get( i ).getProjectParent() != projects.get( i - 1 ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
 }
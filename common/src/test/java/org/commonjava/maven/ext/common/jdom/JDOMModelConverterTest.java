@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.jdom;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Repository;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.commonjava.maven.ext.common.jdom.JDOMModelConverter.Section;
+import org.commonjava.maven.ext.common.util.LineSeparator;
+import org.jdom2.output.XMLOutputter;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JDOMModelConverterTest
+{
+    private static final String POM = "<project>\n"
+                    + "  <modelVersion>4.0.0</modelVersion>\n"
+                    + "  <groupId>org.foo</groupId>\n"
+                    + "  <artifactId>bar</artifactId>\n"
+                    + "  <version>1.0</version>\n"
+                    + "  <properties>\n"
+                    + "    <foo.version>1.0</foo.version>\n"
+                    + "  </properties>\n"
+                    + "  <dependencies>\n"
+                    + "    <dependency>\n"
+                    + "      <groupId>org.foo</groupId>\n"
+                    + "      <artifactId>foo</artifactId>\n"
+                    + "      <version>${foo.version}</version>\n"
+                    + "    </dependency>\n"
+                    + "  </dependencies>\n"
+                    + "  <build>\n"
+                    + "    <plugins>\n"
+                    + "      <plugin>\n"
+                    + "        <artifactId>maven-compiler-plugin</artifactId>\n"
+                    + "        <version>3.8.1</version>\n"
+                    + "      </plugin>\n"
+                    + "    </plugins>\n"
+                    + "  </build>\n"
+                    + "</project>\n";
+
+    @Test
+    public void testGetSections()
+    {
+        JDOMModelConverter converter = new JDOMModelConverter();
+        assertTrue( converter.getSections( Collections.emptySet() ).isEmpty() );
+
+        assertEquals( EnumSet.of( Section.PROPERTIES, Section.DEPENDENCIES, Section.BUILD, Section.PROFILES ),
+                      converter.getSections( new HashSet<>( Arrays.asList( "version", "properties", "dependencies",
+                                                                            "build", "profiles" ) ) ) );
+    }
+
+    @Test
+    public void testConvertDirtySections() throws Exception
+    {
+        Model model = readModel();
+
+        model.getDependencies().get( 0 ).setVersion( "2.0" );
+        Repository repository = new Repository();
+        repository.setId( "foo" );
+        repository.setUrl( "https://foo.org" );
+        model.setRepositories( Collections.singletonList( repository ) );
+
+        PomDocument full = PomDocument.parse( POM.getBytes( StandardCharsets.UTF_8 ), LineSeparator.NL );
+        PomDocument dirty = PomDocument.parse( POM.getBytes( StandardCharsets.UTF_8 ), LineSeparator.NL );
+
+        new JDOMModelConverter().convertModelToJDOM( model, full.getDocument() );
+        new JDOMModelConverter().convertModelToJDOM( model,
+                                                     new HashSet<>( Arrays.asList( "dependencies", "repositories" ) ),
+                                                     dirty.getDocument() );
+
+        // Skipping the unchanged sections must not affect where new elements are inserted.
+        String result = new XMLOutputter().outputString( dirty.getDocument() );
+        assertEquals( new XMLOutputter().outputString( full.getDocument() ), result );
+        assertTrue( result.indexOf( "<repositories>" ) > result.indexOf( "</dependencies>" ) );
+        assertTrue( result.indexOf( "<repositories>" ) < result.indexOf( "<build>" ) );
+    }
+
+    private static Model readModel() throws Exception
+    {
+        return new MavenXpp3Reader().read( new StringReader( POM ) );
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.model;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OriginalProjectsTest
+{
+    private static final String PARENT = "<project>\n"
+                    + "  <modelVersion>4.0.0</modelVersion>\n"
+                    + "  <groupId>org.foo</groupId>\n"
+                    + "  <artifactId>parent</artifactId>\n"
+                    + "  <version>1.0</version>\n"
+                    + "  <packaging>pom</packaging>\n"
+                    + "</project>\n";
+
+    @Test
+    public void testOriginalProjects() throws Exception
+    {
+        Project parent = new Project( new File( "pom.xml" ), readModel( PARENT ) );
+        parent.setPomContent( PARENT.getBytes( StandardCharsets.UTF_8 ) );
+        parent.setExecutionRoot();
+        parent.setInheritanceRoot( true );
+
+        // A project that was not parsed from a file.
+        Model childModel = new Model();
+        childModel.setGroupId( "org.foo" );
+        childModel.setArtifactId( "child" );
+        childModel.setVersion( "1.0" );
+        Project child = new Project( new File( "child/pom.xml" ), childModel );
+        child.setProjectParent( parent );
+
+        OriginalProjects originalProjects = new OriginalProjects( Arrays.asList( parent, child ) );
+
+        parent.getModel().setVersion( "1.0.redhat-00001" );
+        child.getModel().setVersion( "1.0.redhat-00001" );
+
+        List<Project> originals = originalProjects.getProjects();
+        assertSame( originals, originalProjects.getProjects() );
+        assertEquals( 2, originals.size() );
+
+        Project originalParent = originals.get( 0 );
+        assertNotSame( parent, originalParent );
+        assertEquals( "1.0", originalParent.getVersion() );
+        assertEquals( parent.getPom(), originalParent.getPom() );
+        assertTrue( originalParent.isExecutionRoot() );
+        assertTrue( originalParent.isInheritanceRoot() );
+        assertNull( originalParent.getProjectParent() );
+
+        Project originalChild = originals.get( 1 );
+        assertEquals( "1.0", originalChild.getVersion() );
+        assertFalse( originalChild.isExecutionRoot() );
+        assertSame( originalParent, originalChild.getProjectParent() );
+    }
+
+    @Test( expected = ManipulationException.class )
+    public void testInvalidContent() throws Exception
+    {
+        Project project = new Project( new File( "pom.xml" ), readModel( PARENT ) );
+        project.setPomContent( "<project><invalid></project>".getBytes( StandardCharsets.UTF_8 ) );
+
+        new OriginalProjects( Collections.singletonList( project ) ).getProjects();
+    }
+
+    private static Model readModel( String pom ) throws Exception
+    {
+        return new MavenXpp3Reader().read( new StringReader( pom ) );
+    }
+}
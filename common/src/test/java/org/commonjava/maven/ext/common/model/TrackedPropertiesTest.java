@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.common.model;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TrackedPropertiesTest
+{
+    @Test
+    public void testViewModificationsCounted()
+    {
+        Properties source = new Properties();
+        source.setProperty( "a", "1" );
+        source.setProperty( "b", "2" );
+        source.setProperty( "c", "3" );
+        source.setProperty( "d", "4" );
+        TrackedProperties properties = new TrackedProperties( source );
+
+        int count = properties.getModificationCount();
+        for ( Map.Entry<Object, Object> e : properties.entrySet() )
+        {
+            if ( "a".equals( e.getKey() ) )
+            {
+                e.setValue( "changed" );
+            }
+        }
+        assertEquals( "changed", properties.getProperty( "a" ) );
+        assertNotEquals( count, properties.getModificationCount() );
+
+        count = properties.getModificationCount();
+        Iterator<Object> i = properties.keySet().iterator();
+        i.next();
+        i.remove();
+        assertEquals( 3, properties.size() );
+        assertNotEquals( count, properties.getModificationCount() );
+
+        count = properties.getModificationCount();
+        assertTrue( properties.values().remove( properties.values().iterator().next() ) );
+        assertEquals( 2, properties.size() );
+        assertNotEquals( count, properties.getModificationCount() );
+
+        count = properties.getModificationCount();
+        properties.keySet().removeIf( "d"::equals );
+        assertFalse( properties.containsKey( "d" ) );
+        assertNotEquals( count, properties.getModificationCount() );
+
+        // The views still behave as those of any other properties.
+        Properties copy = new Properties();
+        copy.putAll( properties );
+        assertEquals( copy, properties );
+        assertEquals( copy.entrySet(), properties.entrySet() );
+        assertTrue( properties.entrySet().containsAll( copy.entrySet() ) );
+        assertEquals( copy.keySet(), properties.keySet() );
+    }
+}
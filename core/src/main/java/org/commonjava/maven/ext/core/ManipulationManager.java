@@ -25,6 +25,7 @@ import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.annotation.ConfigValue;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.json.PME;
+import org.commonjava.maven.ext.common.model.OriginalProjects;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.util.JSONUtils;
 import org.commonjava.maven.ext.common.util.ProjectComparator;
@@ -33,6 +34,7 @@ import org.commonjava.maven.ext.core.impl.Manipulator;
 import org.commonjava.maven.ext.core.impl.PreparseGroovyManipulator;
 import org.commonjava.maven.ext.core.state.CommonState;
 import org.commonjava.maven.ext.core.state.DependencyState;
+import org.commonjava.maven.ext.core.state.RESTState;
 import org.commonjava.maven.ext.core.state.RelocationState;
 import org.commonjava.maven.ext.core.util.ManipulatorPriorityComparator;
 import org.commonjava.maven.ext.io.PomIO;
@@ -211,14 +213,15 @@ public class ManipulationManager
         }
 
         final List<Project> currentProjects = pomIO.parseProject( session.getPom() );
-        final List<Project> originalProjects = new ArrayList<>(  );
-        currentProjects.forEach( p -> originalProjects.add( new Project( p ) ) );
+        // The original models are only read again from the retained POM content if a report is produced.
+        final OriginalProjects originalProjects = new OriginalProjects( currentProjects );
 
-        final Project originalExecutionRoot = originalProjects.get( 0 );
-        if ( ! originalExecutionRoot.isExecutionRoot() )
+        final Project executionRootProject = currentProjects.get( 0 );
+        if ( ! executionRootProject.isExecutionRoot() )
         {
-            throw new ManipulationException( "First project is not execution root : {}", originalProjects );
+            throw new ManipulationException( "First project is not execution root : {}", currentProjects );
         }
+        final String originalGAV = executionRootProject.getKey().toString();
 
         session.getActiveProfiles().addAll( parseActiveProfiles( session, currentProjects ) );
         session.setProjects( currentProjects );
@@ -233,7 +236,13 @@ public class ManipulationManager
             ProjectVersionRef executionRoot = pomIO.rewritePOMs( changed );
 
             jsonReport.getGav().setPVR( executionRoot );
-            jsonReport.getGav().setOriginalGAV( originalExecutionRoot.getKey().toString() );
+            jsonReport.getGav().setOriginalGAV( originalGAV );
+
+            final RESTState restState = session.getState( RESTState.class );
+            if ( restState != null && restState.isEnabled() )
+            {
+                jsonReport.setRestMetrics( restState.getVersionTranslator().getMetrics() );
+            }
 
             try
             {
@@ -241,7 +250,7 @@ public class ManipulationManager
                 new File( session.getTargetDir().getParentFile(), ManipulationManager.MARKER_FILE ).createNewFile();
 
                 WildcardMap<ProjectVersionRef> map = (session.getState( RelocationState.class) == null ? new WildcardMap<>() : session.getState( RelocationState.class ).getDependencyRelocations());
-                String report = ProjectComparator.compareProjects( session, jsonReport, map , originalProjects, currentProjects );
+                String report = ProjectComparator.compareProjects( session, jsonReport, map , originalProjects.getProjects(), currentProjects );
                 logger.info( "{}{}", System.lineSeparator(), report );
 
                 final String reportTxtOutputFile = session.getUserProperties().getProperty( REPORT_TXT_OUTPUT_FILE, "");
@@ -331,6 +340,12 @@ public class ManipulationManager
         throws ManipulationException
     {
         final Set<Project> changed = new HashSet<>();
+
+        // The resolved dependencies and plugins of a project are reused until it is known to be modified. The active
+        // profiles have since been set, and a manipulator may change a model in any manner, e.g. via a script, so
+        // every project it reports as changed is resolved again.
+        projects.forEach( Project::modified );
+
         for ( final Manipulator manipulator : orderedManipulators )
         {
             logger.info( "Running manipulator {}", manipulator.getClass().getName() );
@@ -339,6 +354,7 @@ public class ManipulationManager
             if ( mChanged != null )
             {
                 changed.addAll( mChanged );
+                mChanged.forEach( Project::modified );
             }
         }
 
@@ -91,6 +91,7 @@ public abstract class BaseScriptUtils extends Script implements MavenBaseScript
                               a.getValue().setVersion(
                                               PropertyResolver.resolvePropertiesUnchecked( getSession(), currentProject.getInheritedList(), a.getValue().getVersion() ) );
                           } );
+            currentProject.modified();
         }
         catch (ManipulationUncheckedException e)
         {
@@ -142,6 +143,7 @@ public abstract class BaseScriptUtils extends Script implements MavenBaseScript
                               a.getValue().setVersion(
                                               PropertyResolver.resolvePropertiesUnchecked( getSession(), currentProject.getInheritedList(), a.getValue().getVersion() ) );
                           } );
+            currentProject.modified();
         }
         catch (ManipulationUncheckedException e)
         {
@@ -52,7 +52,8 @@ public interface CommonBaseScript
     FileIO getFileIO();
 
     /**
-     * Gets a configured VersionTranslator to make REST calls to DA
+     * Gets a configured VersionTranslator to make REST calls to DA. Independent lookups may be run concurrently
+     * via {@link Translator#lookupVersionsAsync} and {@link Translator#lookupProjectVersionsAsync}.
      *
      * @throws ManipulationException if an error occurs
      * @return a VersionTranslator
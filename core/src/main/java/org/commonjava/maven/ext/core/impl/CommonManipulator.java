@@ -314,6 +314,7 @@ public class CommonManipulator
                                 }
                                 // Not checking strict version alignment here as explicit overrides take priority.
                                 wrapper.setVersion( target );
+                                project.modified();
                             }
                         }
                     }
@@ -375,6 +375,7 @@ public class DependencyManipulator extends CommonManipulator implements Manipula
                                 model.getParent().getVersion(), newValue, project.getModelParent().getGroupId(),
                                 project.getModelParent().getArtifactId() );
                         model.getParent().setVersion( newValue );
+                        project.modified();
                         break;
                     }
                 }
@@ -389,6 +390,7 @@ public class DependencyManipulator extends CommonManipulator implements Manipula
                         Collections.singletonMap( new SimpleScopedArtifactRef( d ), d ) ;
                 applyExplicitOverrides( project, pDepMap, explicitOverrides, explicitVersionPropertyUpdateMap );
                 project.getModelParent().setVersion( d.getVersion() );
+                project.modified();
             }
 
             // Apply overrides to project dependency management
@@ -440,6 +442,7 @@ public class DependencyManipulator extends CommonManipulator implements Manipula
                         logger.debug( "Added <DependencyManagement/> for current project" );
                     }
                     dependencyManagement.getDependencies().addAll( 0, extraDeps );
+                    project.modified();
                 }
             }
             else if ( commonState.isOverrideTransitive() && dependencyState.getRemoteBOMDepMgmt() == null )
@@ -685,6 +688,7 @@ public class DependencyManipulator extends CommonManipulator implements Manipula
                                 {
                                     wrapper.setVersion( overrideVersion );
                                 }
+                                project.modified();
                             }
                         }
                         unmatchedVersionOverrides.remove( entry.getKey() );
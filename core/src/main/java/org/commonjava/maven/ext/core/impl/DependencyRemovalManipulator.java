@@ -87,6 +87,7 @@ public class DependencyRemovalManipulator
 
             if ( apply( project, model ) )
             {
+                project.modified();
                 changed.add( project );
             }
         }
@@ -507,6 +507,7 @@ public class PluginManipulator extends CommonManipulator implements Manipulator
                         // Now merge them together. Only inject dependencies in the management block.
                         logger.debug( "Adding in plugin dependencies {}", override.getDependencies() );
                         plugin.getDependencies().addAll( override.getDependencies() );
+                        project.modified();
                     }
                 }
 
@@ -532,6 +533,7 @@ public class PluginManipulator extends CommonManipulator implements Manipulator
                     else
                     {
                         plugin.setVersion( newValue );
+                        project.modified();
                         logger.info( "Altered plugin version: {}={}", override.getKey(), newValue );
                     }
                 }
@@ -542,6 +544,7 @@ public class PluginManipulator extends CommonManipulator implements Manipulator
                             || override.getExecutions().size() > 0 ) )
             {
                 project.getModel().getBuild().getPluginManagement().getPlugins().add( override );
+                project.modified();
                 logger.info( "Added plugin version: {}={}", override.getKey(), newValue );
             }
         }
@@ -57,6 +57,12 @@ public class RESTBOMCollector
     public void init( final ManipulationSession session )
     {
         this.session = session;
+
+        final RESTState previous = session.getState( RESTState.class );
+        if ( previous != null )
+        {
+            previous.close();
+        }
         session.setState( new RESTState( session ) );
     }
 
@@ -104,7 +110,15 @@ public class RESTBOMCollector
             // Call the REST to populate the result.
             logger.debug( "Passing {} BOM GAVs following into the REST client api {}", restParam.size(), restParam );
             logger.info( "Calling REST client for BOMs..." );
-            Map<ProjectVersionRef, String> restResult = state.getVersionTranslator().lookupVersions( restParam );
+            final Map<ProjectVersionRef, String> restResult;
+            try
+            {
+                restResult = state.getVersionTranslator().lookupVersions( restParam );
+            }
+            finally
+            {
+                state.close();
+            }
             logger.debug( "REST Client returned for BOMs {}", restResult );
 
             final ListIterator<ProjectVersionRef> emptyIterator = Collections.<ProjectVersionRef>emptyList().listIterator();
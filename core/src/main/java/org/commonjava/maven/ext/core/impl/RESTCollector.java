@@ -31,6 +31,7 @@ import org.commonjava.maven.ext.core.state.DependencyState;
 import org.commonjava.maven.ext.core.state.PluginState;
 import org.commonjava.maven.ext.core.state.RESTState;
 import org.commonjava.maven.ext.core.state.VersioningState;
+import org.commonjava.maven.ext.io.rest.Translator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +45,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 
@@ -65,6 +69,12 @@ public class RESTCollector
     public void init( final ManipulationSession session )
     {
         this.session = session;
+
+        final RESTState previous = session.getState( RESTState.class );
+        if ( previous != null )
+        {
+            previous.close();
+        }
         session.setState( new RESTState( session ) );
     }
 
@@ -116,22 +126,43 @@ public class RESTCollector
             restLookupVersionsParamList.add( p.asProjectVersionRef() );
         }
 
-        Map<ProjectVersionRef, String> vRestResult;
+        final Translator translator = state.getVersionTranslator();
+        final CompletableFuture<Map<ProjectVersionRef, String>> vRestFuture;
         // Call the REST to populate the result if dependency manipulation is enabled. Can't use ds.isEnabled as this
         // code partly establishes whether it is enabled.
         if (ds.getPrecedence() != DependencyState.DependencyPrecedence.NONE)
         {
             logger.debug( "Passing {} GAVs into the REST client api {}", restLookupVersionsParamList.size(),
                           restLookupVersionsParamList );
-            vRestResult = state.getVersionTranslator().lookupVersions( restLookupVersionsParamList );
-            logger.info( "REST Client returned: {}", vRestResult );
+            vRestFuture = translator.lookupVersionsAsync( restLookupVersionsParamList );
         }
         else
         {
-            vRestResult = Collections.emptyMap();
+            vRestFuture = CompletableFuture.completedFuture( Collections.emptyMap() );
         }
+        // The dependency and project version lookups are independent so run them concurrently.
         logger.debug( "Passing {} Project GAVs into the REST client api {}", restLookupProjectVersionParamList.size(), restLookupProjectVersionParamList );
-        Map<ProjectVersionRef, String> pvResultResult = state.getVersionTranslator().lookupProjectVersions( restLookupProjectVersionParamList );
+        final CompletableFuture<Map<ProjectVersionRef, String>> pvResultFuture =
+                        translator.lookupProjectVersionsAsync( restLookupProjectVersionParamList );
+
+        final Map<ProjectVersionRef, String> vRestResult;
+        final Map<ProjectVersionRef, String> pvResultResult;
+        boolean completed = false;
+        try
+        {
+            vRestResult = Translator.await( vRestFuture );
+            completed = true;
+            pvResultResult = Translator.await( pvResultFuture );
+        }
+        finally
+        {
+            if ( !completed )
+            {
+                drain( pvResultFuture );
+            }
+            translator.close();
+        }
+        logger.info( "REST Client returned: {}", vRestResult );
         logger.info( "REST Client returned for project versions: {}", pvResultResult );
 
         Map<ProjectRef, Set<String>> versionStates = new HashMap<>();
@@ -163,6 +194,26 @@ public class RESTCollector
         ps.setRemoteRESTOverrides( overrides );
     }
 
+    /**
+     * Waits for a lookup whose result is no longer needed, ignoring its outcome, so that it does not keep running
+     * once collection has failed.
+     */
+    private static void drain( CompletableFuture<Map<ProjectVersionRef, String>> future )
+    {
+        try
+        {
+            future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( ExecutionException | CancellationException e )
+        {
+            logger.debug( "Ignoring failure of abandoned REST lookup", e );
+        }
+    }
+
     /**
      * No-op in this case - any changes, if configured, would happen in Versioning or Dependency Manipulators.
      */
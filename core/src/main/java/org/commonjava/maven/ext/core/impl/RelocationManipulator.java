@@ -162,9 +162,11 @@ public class RelocationManipulator
         return result;
     }
 
-    private boolean updateDependencies( Project project, WildcardMap<ProjectVersionRef> relocations, Map<ArtifactRef, Dependency> dependencies )
+    private boolean updateDependencies( Project project, WildcardMap<ProjectVersionRef> relocations, Map<ArtifactRef, Dependency> resolved )
                     throws ManipulationException
     {
+        // The resolved view is unmodifiable, so the relocated keys are tracked in a copy of it.
+        final Map<ArtifactRef, Dependency> dependencies = new HashMap<>( resolved );
         final Map<ArtifactRef, Dependency> postFixUp = new HashMap<>();
         boolean result = false;
 
@@ -222,8 +224,10 @@ public class RelocationManipulator
     }
 
     private boolean updatePlugins( WildcardMap<ProjectVersionRef> pluginRelocations, final WildcardMap<ProjectVersionRef> dependencyRelocations, final Project project,
-                                   final Map<ProjectVersionRef, Plugin> pluginMap ) throws ManipulationException
+                                   final Map<ProjectVersionRef, Plugin> resolved ) throws ManipulationException
     {
+        // The resolved view is unmodifiable, so the relocated keys are tracked in a copy of it.
+        final Map<ProjectVersionRef, Plugin> pluginMap = new HashMap<>( resolved );
         final Map<ProjectVersionRef, Plugin> postFixUp = new HashMap<>();
         boolean result = false;
 
@@ -95,6 +95,7 @@ public class SuffixManipulator
                     final String version = m.group( 1 );
                     logger.info( "Stripping suffix for {} and resetting parent version from {} to {}", project.getKey(), parent.getVersion(), version );
                     parent.setVersion( version );
+                    project.modified();
                     changed.add( project );
                 }
             }
@@ -107,6 +108,7 @@ public class SuffixManipulator
                     final String version = m.group( 1 );
                     logger.info( "Stripping suffix and resetting project version from {} to {}", project.getModel().getVersion(), version );
                     project.getModel().setVersion( version );
+                    project.modified();
                     changed.add( project );
                 }
             }
@@ -156,6 +158,7 @@ public class SuffixManipulator
                         else
                         {
                             original.setVersion( stripped );
+                            project.modified();
                         }
                     }
                 }
@@ -195,6 +198,7 @@ public class SuffixManipulator
                         else
                         {
                             original.setVersion( stripped );
+                            project.modified();
                         }
                     }
                 }
@@ -19,9 +19,13 @@ import org.apache.commons.lang.StringUtils;
 import org.commonjava.maven.ext.annotation.ConfigValue;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.impl.DependencyManipulator;
+import org.commonjava.maven.ext.io.rest.CachingTranslator;
 import org.commonjava.maven.ext.io.rest.DefaultTranslator;
+import org.commonjava.maven.ext.io.rest.RecordReplayTranslator;
+import org.commonjava.maven.ext.io.rest.RetryPolicy;
 import org.commonjava.maven.ext.io.rest.Translator;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -64,10 +68,45 @@ public class RESTState implements State
     @ConfigValue( docIndex = "dep-manip.html#rest-timeouts-and-retries" )
     public static final String REST_RETRY_DURATION_SEC = "restRetryDuration";
 
+    @ConfigValue( docIndex = "dep-manip.html#rest-timeouts-and-retries" )
+    public static final String REST_CONCURRENCY = "restConcurrency";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-timeouts-and-retries" )
+    public static final String REST_TARGET_LATENCY_SEC = "restTargetLatency";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-timeouts-and-retries" )
+    public static final String REST_RETRY_MAX_DURATION_SEC = "restRetryMaxDuration";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-timeouts-and-retries" )
+    public static final String REST_CIRCUIT_BREAKER_THRESHOLD = "restCircuitBreakerThreshold";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-timeouts-and-retries" )
+    public static final String REST_CIRCUIT_BREAKER_DURATION_SEC = "restCircuitBreakerDuration";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-timeouts-and-retries" )
+    public static final String REST_COMPRESS_REQUESTS = "restCompressRequests";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-caching" )
+    public static final String REST_CACHE_DIRECTORY = "restCacheDirectory";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-caching" )
+    public static final String REST_CACHE_TTL_SEC = "restCacheTTL";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-caching" )
+    public static final String REST_CACHE_MAX_SIZE = "restCacheMaxSize";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-recording" )
+    public static final String REST_RECORD_FILE = "restRecordFile";
+
+    @ConfigValue( docIndex = "dep-manip.html#rest-recording" )
+    public static final String REST_REPLAY_FILE = "restReplayFile";
+
     private final ManipulationSession session;
 
     private String restURL;
 
+    private String restReplayFile;
+
     private Translator restEndpoint;
 
     private boolean restSuffixAlign;
@@ -97,21 +136,64 @@ public class RESTState implements State
                                                                          String.valueOf( DefaultTranslator.DEFAULT_SOCKET_TIMEOUT_SEC ) ) );
         int restRetryDuration = Integer.parseInt( userProps.getProperty( REST_RETRY_DURATION_SEC,
                                                                          String.valueOf( DefaultTranslator.RETRY_DURATION_SEC ) ) );
-
+        int restConcurrency = Integer.parseInt( userProps.getProperty( REST_CONCURRENCY,
+                                                                       String.valueOf( DefaultTranslator.DEFAULT_CONCURRENCY ) ) );
+        int restTargetLatency = Integer.parseInt( userProps.getProperty( REST_TARGET_LATENCY_SEC,
+                                                                         String.valueOf( DefaultTranslator.DEFAULT_TARGET_LATENCY_SEC ) ) );
+        // By default the maximum retry duration is the same as the retry duration, so waits are fixed.
+        int restRetryMaxDuration = Integer.parseInt( userProps.getProperty( REST_RETRY_MAX_DURATION_SEC,
+                                                                            String.valueOf( restRetryDuration ) ) );
+        int restCircuitBreakerThreshold = Integer.parseInt( userProps.getProperty( REST_CIRCUIT_BREAKER_THRESHOLD,
+                                                                                   String.valueOf( RetryPolicy.DEFAULT_CIRCUIT_BREAKER_THRESHOLD ) ) );
+        int restCircuitBreakerDuration = Integer.parseInt( userProps.getProperty( REST_CIRCUIT_BREAKER_DURATION_SEC,
+                                                                                  String.valueOf( RetryPolicy.DEFAULT_CIRCUIT_BREAKER_DURATION_SEC ) ) );
+        boolean restCompressRequests = Boolean.parseBoolean( userProps.getProperty( REST_COMPRESS_REQUESTS ) );
+
+        close();
         restEndpoint = new DefaultTranslator( restURL, restMaxSize, restMinSize, brewPullActive, mode,
                                               restHeaders, restConnectionTimeout,
-                                              restSocketTimeout, restRetryDuration );
+                                              restSocketTimeout, restRetryDuration, restConcurrency,
+                                              restTargetLatency,
+                                              new RetryPolicy( restRetryMaxDuration, restCircuitBreakerThreshold,
+                                                               restCircuitBreakerDuration ),
+                                              restCompressRequests );
+
+        String restCacheDirectory = userProps.getProperty( REST_CACHE_DIRECTORY );
+        if ( StringUtils.isNotEmpty( restCacheDirectory ) )
+        {
+            long restCacheTTL = Long.parseLong( userProps.getProperty( REST_CACHE_TTL_SEC,
+                                                                       String.valueOf( CachingTranslator.DEFAULT_CACHE_TTL_SEC ) ) );
+            int restCacheMaxSize = Integer.parseInt( userProps.getProperty( REST_CACHE_MAX_SIZE,
+                                                                            String.valueOf( CachingTranslator.DEFAULT_CACHE_MAX_SIZE ) ) );
+
+            restEndpoint = new CachingTranslator( restEndpoint, new File( restCacheDirectory ), restURL, mode,
+                                                  brewPullActive, restCacheTTL, restCacheMaxSize );
+        }
+
+        // Record outside of the cache so that the recording includes GAVs answered by it.
+        String restRecordFile = userProps.getProperty( REST_RECORD_FILE );
+        restReplayFile = userProps.getProperty( REST_REPLAY_FILE );
+        if ( StringUtils.isNotEmpty( restReplayFile ) )
+        {
+            restEndpoint = new RecordReplayTranslator( null, new File( restReplayFile ),
+                                                       RecordReplayTranslator.Mode.REPLAY );
+        }
+        else if ( StringUtils.isNotEmpty( restRecordFile ) )
+        {
+            restEndpoint = new RecordReplayTranslator( restEndpoint, new File( restRecordFile ),
+                                                       RecordReplayTranslator.Mode.RECORD );
+        }
     }
 
     /**
-     * Enabled ONLY if propertyManagement is provided in the user properties / CLI -D options.
+     * Enabled ONLY if restURL or restReplayFile is provided in the user properties / CLI -D options.
      *
      * @see State#isEnabled()
      */
     @Override
     public boolean isEnabled()
     {
-        return restURL != null && !restURL.isEmpty();
+        return ( restURL != null && !restURL.isEmpty() ) || StringUtils.isNotEmpty( restReplayFile );
     }
 
     public Translator getVersionTranslator()
@@ -119,6 +201,17 @@ public class RESTState implements State
         return restEndpoint;
     }
 
+    /**
+     * Releases the connections held by the translator. It may still be used afterwards, e.g. by a Groovy script.
+     */
+    public void close()
+    {
+        if ( restEndpoint != null )
+        {
+            restEndpoint.close();
+        }
+    }
+
     public boolean isRestSuffixAlign()
     {
         return restSuffixAlign;
@@ -88,6 +88,7 @@ public final class DependencyPluginUtils
         else
         {
             c.accept( relocation );
+            project.modified();
         }
     }
 
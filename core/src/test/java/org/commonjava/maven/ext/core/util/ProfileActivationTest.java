@@ -15,7 +15,10 @@
  */
 package org.commonjava.maven.ext.core.util;
 
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.ProfileUtils;
 import org.commonjava.maven.ext.core.ManipulationSession;
 import org.commonjava.maven.ext.core.fixture.TestUtils;
 import org.commonjava.maven.ext.io.PomIO;
@@ -29,7 +32,9 @@ import java.util.Properties;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ProfileActivationTest
 {
@@ -86,4 +91,47 @@ public class ProfileActivationTest
         assertEquals( 3, activeProfiles.size() );
         assertTrue( activeProfiles.stream().anyMatch( activeProfile -> "testProperty".equals( activeProfile ) ) );
     }
+
+    @Test
+    public void testActiveProfilesReused() throws Exception
+    {
+        ManipulationSession session = TestUtils.createSession( new Properties() );
+        Model model = new Model();
+        for ( String id : new String[] { "first", "second" } )
+        {
+            Profile profile = new Profile();
+            profile.setId( id );
+            model.addProfile( profile );
+        }
+
+        List<Profile> profiles = ProfileUtils.getProfiles( session, model );
+        assertTrue( profiles.isEmpty() );
+        assertSame( profiles, ProfileUtils.getProfiles( session, model ) );
+
+        session.getActiveProfiles().add( "second" );
+        profiles = ProfileUtils.getProfiles( session, model );
+        assertEquals( 1, profiles.size() );
+        assertEquals( "second", profiles.get( 0 ).getId() );
+        assertSame( profiles, ProfileUtils.getProfiles( session, model ) );
+
+        // Profiles added to the model are seen.
+        Profile third = new Profile();
+        third.setId( "third" );
+        model.addProfile( third );
+        session.getActiveProfiles().add( "third" );
+        assertEquals( 2, ProfileUtils.getProfiles( session, model ).size() );
+
+        session.getUserProperties().setProperty( ProfileUtils.PROFILE_SCANNING, "false" );
+        assertEquals( 3, ProfileUtils.getProfiles( session, model ).size() );
+
+        try
+        {
+            ProfileUtils.getProfiles( session, model ).clear();
+            fail( "Should have thrown an exception" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // Pass.
+        }
+    }
 }
@@ -28,6 +28,7 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -39,7 +40,9 @@ import static org.commonjava.maven.ext.core.fixture.TestUtils.ROOT_DIRECTORY;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ProjectInheritanceTest
 {
@@ -202,6 +205,47 @@ public class ProjectInheritanceTest
 
 
 
+    @Test
+    public void testInheritedListReused() throws Exception
+    {
+        final File projectroot = Paths.get( INTEGRATION_TEST.toString(), "src", "it", "project-inheritance", "pom.xml" ).toFile();
+
+        PomIO pomIO = new PomIO();
+
+        List<Project> projects = pomIO.parseProject( projectroot );
+        Project child = projects.get( 2 );
+
+        List<Project> inherited = child.getInheritedList();
+        List<Project> reversed = child.getReverseInheritedList();
+        assertSame( inherited, child.getInheritedList() );
+        assertSame( reversed, child.getReverseInheritedList() );
+        assertEquals( 3, inherited.size() );
+        for ( int i = 0; i < inherited.size(); i++ )
+        {
+            assertSame( inherited.get( i ), reversed.get( inherited.size() - 1 - i ) );
+        }
+
+        try
+        {
+            inherited.remove( 0 );
+            fail( "Should have thrown an exception" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // Pass.
+        }
+
+        // Re-linking any project within the chain is seen by its descendants.
+        Project intermediate = inherited.get( 1 );
+        intermediate.setProjectParent( null );
+        assertEquals( 2, child.getInheritedList().size() );
+        assertSame( intermediate, child.getInheritedList().get( 0 ) );
+        assertSame( child, child.getReverseInheritedList().get( 0 ) );
+
+        intermediate.setProjectParent( inherited.get( 0 ) );
+        assertEquals( inherited, child.getInheritedList() );
+    }
+
     @Test
     public void testVerifyProjectVersion() throws Exception
     {
@@ -242,4 +286,70 @@ public class ProjectInheritanceTest
             }
         }
     }
+
+    @Test
+    public void testResolvedViewsReused() throws Exception
+    {
+        final ManipulationSession session = new ManipulationSession();
+
+        final File root = temporaryFolder.newFolder();
+        FileUtils.writeStringToFile( new File( root, "pom.xml" ),
+                                     "<project>\n  <modelVersion>4.0.0</modelVersion>\n"
+                                                     + "  <groupId>org.foo</groupId>\n"
+                                                     + "  <artifactId>root</artifactId>\n"
+                                                     + "  <version>1.0</version>\n"
+                                                     + "  <packaging>pom</packaging>\n"
+                                                     + "  <properties>\n    <foo.version>1.0</foo.version>\n"
+                                                     + "  </properties>\n"
+                                                     + "  <modules>\n    <module>child</module>\n  </modules>\n"
+                                                     + "</project>\n", StandardCharsets.UTF_8 );
+        FileUtils.writeStringToFile( new File( root, "child/pom.xml" ),
+                                     "<project>\n  <modelVersion>4.0.0</modelVersion>\n"
+                                                     + "  <parent>\n    <groupId>org.foo</groupId>\n"
+                                                     + "    <artifactId>root</artifactId>\n"
+                                                     + "    <version>1.0</version>\n  </parent>\n"
+                                                     + "  <artifactId>child</artifactId>\n"
+                                                     + "  <dependencies>\n    <dependency>\n"
+                                                     + "      <groupId>org.foo</groupId>\n"
+                                                     + "      <artifactId>foo</artifactId>\n"
+                                                     + "      <version>${foo.version}</version>\n"
+                                                     + "    </dependency>\n  </dependencies>\n"
+                                                     + "</project>\n", StandardCharsets.UTF_8 );
+
+        List<Project> projects = new PomIO().parseProject( new File( root, "pom.xml" ) );
+        Project parent = projects.get( 0 );
+        Project child = projects.get( 1 );
+
+        Map<ArtifactRef, Dependency> deps = child.getResolvedDependencies( session );
+        assertEquals( SimpleScopedArtifactRef.parse( "org.foo:foo:jar:1.0" ), deps.keySet().iterator().next() );
+
+        // The view is reused until the project, or one it inherits from, is modified and may not be changed itself.
+        assertSame( deps, child.getResolvedDependencies( session ) );
+        try
+        {
+            deps.clear();
+            fail( "Resolved view is modifiable" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            assertEquals( 1, child.getResolvedDependencies( session ).size() );
+        }
+
+        // Changing an inherited property resolves the view again.
+        parent.getModel().getProperties().setProperty( "foo.version", "2.0" );
+        deps = child.getResolvedDependencies( session );
+        assertEquals( SimpleScopedArtifactRef.parse( "org.foo:foo:jar:2.0" ), deps.keySet().iterator().next() );
+
+        // Changes to the model itself are only seen once the project is marked as modified.
+        child.getModel().getDependencies().get( 0 ).setVersion( "3.0" );
+        assertSame( deps, child.getResolvedDependencies( session ) );
+
+        child.modified();
+        deps = child.getResolvedDependencies( session );
+        assertEquals( SimpleScopedArtifactRef.parse( "org.foo:foo:jar:3.0" ), deps.keySet().iterator().next() );
+
+        // A copy of a project counts the modifications of its own properties.
+        new Project( parent ).getModel().getProperties().setProperty( "foo.version", "4.0" );
+        assertSame( deps, child.getResolvedDependencies( session ) );
+    }
 }
@@ -320,6 +320,40 @@ public class PropertiesUtilsTest
         assertEquals( "version.gnu.getopt", result );
     }
 
+    @Test
+    public void testResolveInheritedPropertiesAfterUpdate() throws Exception
+    {
+        final Model modelChild = TestUtils.resolveModelResource( RESOURCE_BASE, "inherited-properties.pom" );
+        final Model modelParent = TestUtils.resolveModelResource( RESOURCE_BASE, "infinispan-bom-8.2.0.Final.pom" );
+        ManipulationSession session = createUpdateSession();
+
+        Project pP = new Project( modelParent );
+        Project pC = new Project( modelChild );
+        pC.setProjectParent( pP );
+
+        assertEquals( "2.11.7", PropertyResolver.resolveInheritedProperties( session, pC,
+                                                                             "${version.scala.major}.${version.scala.minor}" ) );
+        assertSame( pC.getEffectiveProperties( session ), pC.getEffectiveProperties( session ) );
+
+        // Updating a property of the parent is seen through the effective properties of the child.
+        assertSame( updateProperties( session, pC, false, "version.hibernate.core", "5.0.4.Final-redhat-1" ),
+                    PropertiesUtils.PropertyUpdate.FOUND );
+        assertEquals( "5.0.4.Final-redhat-1",
+                      PropertyResolver.resolveInheritedProperties( session, pC, "${version.hibernate.osgi}" ) );
+
+        // As are properties modified directly, with the child taking precedence.
+        pP.getModel().getProperties().setProperty( "version.scala.major", "2.12" );
+        pP.getModel().getProperties().setProperty( "version.scala.minor", "8" );
+        assertEquals( "2.12.7", PropertyResolver.resolveInheritedProperties( session, pC,
+                                                                             "${version.scala.major}.${version.scala.minor}" ) );
+        assertEquals( "2.12.8", PropertyResolver.resolveInheritedProperties( session, pP,
+                                                                             "${version.scala.major}.${version.scala.minor}" ) );
+
+        pC.getModel().getProperties().remove( "version.scala.minor" );
+        assertEquals( "2.12.8", PropertyResolver.resolveInheritedProperties( session, pC,
+                                                                             "${version.scala.major}.${version.scala.minor}" ) );
+    }
+
     @Test
     public void testUpdateProjectVersionProperty() throws Exception
     {
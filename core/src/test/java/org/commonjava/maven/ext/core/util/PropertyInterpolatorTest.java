@@ -17,7 +17,13 @@ package org.commonjava.maven.ext.core.util;
 
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
+import org.codehaus.plexus.interpolation.InterpolationException;
+import org.codehaus.plexus.interpolation.PrefixAwareRecursionInterceptor;
+import org.codehaus.plexus.interpolation.PrefixedObjectValueSource;
+import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
+import org.codehaus.plexus.interpolation.StringSearchInterpolator;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
+import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.util.PropertyInterpolator;
 import org.commonjava.maven.ext.core.ManipulationSession;
@@ -26,12 +32,17 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class PropertyInterpolatorTest
 {
@@ -85,6 +96,96 @@ public class PropertyInterpolatorTest
         assertFalse( interp.contains( "${" ) );
     }
 
+    @Test
+    public void testInterpolateExpressions() throws Exception
+    {
+        final Model model = TestUtils.resolveModelResource( RESOURCE_BASE, "infinispan-bom-8.2.0.Final.pom" );
+        final Project project = new Project( model );
+
+        final Properties props = new Properties();
+        props.setProperty( "major", "2" );
+        props.setProperty( "minor", "${project.version}" );
+        props.setProperty( "full", "${major}.${minor}" );
+        props.setProperty( "cycle.a", "${cycle.b}" );
+        props.setProperty( "cycle.b", "x-${cycle.a}" );
+        PropertyInterpolator pi = new PropertyInterpolator( props, project );
+
+        final String literal = "5.0.4.Final";
+        assertSame( literal, pi.interp( literal ) );
+
+        assertEquals( project.getVersion(), pi.interp( "${project.version}" ) );
+        assertEquals( project.getVersion(), pi.interp( "${pom.version}" ) );
+        assertEquals( project.getGroupId() + ':' + project.getArtifactId(),
+                      pi.interp( "${project.groupId}:${project.artifactId}" ) );
+        assertEquals( "v2." + project.getVersion() + "-suffix", pi.interp( "v${full}-suffix" ) );
+        // Compiled values are reused and see changes to the properties.
+        props.setProperty( "major", "3" );
+        assertEquals( "v3." + project.getVersion() + "-suffix", pi.interp( "v${full}-suffix" ) );
+
+        assertEquals( "${unknown}-${project.unknown}", pi.interp( "${unknown}-${project.unknown}" ) );
+        assertEquals( "${unterminated", pi.interp( "${unterminated" ) );
+
+        try
+        {
+            pi.interp( "${cycle.a}" );
+            fail( "Should have thrown an exception" );
+        }
+        catch ( ManipulationException e )
+        {
+            assertTrue( e.getMessage().contains( "cycle.a" ) );
+        }
+    }
+
+    @Test
+    public void testInterpolateMatchesInterpolator() throws Exception
+    {
+        final Model model = TestUtils.resolveModelResource( RESOURCE_BASE, "infinispan-bom-8.2.0.Final.pom" );
+        final Project project = new Project( model );
+
+        // Whole expressions make references between the properties, and so cycles, likely.
+        final String[] tokens = { "${a}", "${b}", "${a.b}", "${version}", "${project.version}", "${pom.groupId}",
+                        "${.version}", "${", "${.", "}", "$", "{", ".", " ", "a", "b", "x", "project", "project.",
+                        "pom.", "version", "groupId", "artifactId", "name", "projectversion" };
+        final String[] keys = { "a", "b", "a.b", "version", "project.version", "pom.groupId" };
+        final Random random = new Random( 42 );
+
+        for ( int i = 0; i < 2000; i++ )
+        {
+            final Properties props = new Properties();
+            for ( String key : keys )
+            {
+                if ( random.nextInt( 3 ) > 0 )
+                {
+                    props.setProperty( key, randomValue( random, tokens, 4 ) );
+                }
+            }
+            final PropertyInterpolator pi = new PropertyInterpolator( props, project );
+
+            for ( int j = 0; j < 5; j++ )
+            {
+                final String value = randomValue( random, tokens, 8 );
+                final String expected;
+                try
+                {
+                    expected = interpolate( props, project, value );
+                }
+                catch ( InterpolationException e )
+                {
+                    try
+                    {
+                        pi.interp( value );
+                        fail( "Should have thrown an exception for " + value + " with " + props );
+                    }
+                    catch ( ManipulationException ignored )
+                    {
+                    }
+                    continue;
+                }
+                assertEquals( "Interpolating " + value + " with " + props, expected, pi.interp( value ) );
+            }
+        }
+    }
+
     @Test
     public void testResolveProjectDependencies() throws Exception
     {
@@ -95,4 +196,34 @@ public class PropertyInterpolatorTest
 
         assertEquals( 66, deps.size() );
     }
+
+    private static String randomValue( Random random, String[] tokens, int max )
+    {
+        final StringBuilder result = new StringBuilder();
+        for ( int i = random.nextInt( max + 1 ); i > 0; i-- )
+        {
+            result.append( tokens[random.nextInt( tokens.length )] );
+        }
+        return result.toString();
+    }
+
+    /**
+     * Interpolates as a plain {@link StringSearchInterpolator} would, for comparison with {@link PropertyInterpolator}.
+     */
+    private static String interpolate( Properties props, Project project, String value )
+                    throws InterpolationException
+    {
+        final List<String> prefixes = Arrays.asList( "pom", "project" );
+        final StringSearchInterpolator interpolator = new StringSearchInterpolator();
+        interpolator.addValueSource( new PropertiesBasedValueSource( props ) );
+        interpolator.addValueSource( new PrefixedObjectValueSource( prefixes, project, true ) );
+        try
+        {
+            return interpolator.interpolate( value, new PrefixAwareRecursionInterceptor( prefixes, true ) );
+        }
+        finally
+        {
+            interpolator.clearFeedback();
+        }
+    }
 }
@@ -24,12 +24,9 @@ import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.UUID;
 
@@ -88,35 +85,46 @@ public class FileIO
 
     public static LineSeparator determineEOL( File file ) throws ManipulationException
     {
-        try (BufferedReader bufferIn = new BufferedReader(
-                        new InputStreamReader( Files.newInputStream( file.toPath() ), StandardCharsets.UTF_8 ) ))
+        try
         {
-            int prev = -1;
-            int ch;
-            while ( ( ch = bufferIn.read() ) != -1 )
+            return determineEOL( Files.readAllBytes( file.toPath() ) );
+        }
+        catch ( IOException ioe )
+        {
+            throw new ManipulationException( "Could not determine end-of-line marker mode", ioe );
+        }
+    }
+
+    /**
+     * Determines the line separator from the first line ending in the content. As the separators are ASCII they may
+     * be found without decoding the UTF-8 content.
+     *
+     * @param content the file content.
+     * @return the line separator.
+     * @throws ManipulationException if the content contains no line ending.
+     */
+    public static LineSeparator determineEOL( byte[] content ) throws ManipulationException
+    {
+        int prev = -1;
+        for ( byte ch : content )
+        {
+            if ( ch == '\n' )
             {
-                if ( ch == '\n' )
+                if ( prev == '\r' )
                 {
-                    if ( prev == '\r' )
-                    {
-                        return LineSeparator.CRNL;
-                    }
-                    else
-                    {
-                        return LineSeparator.NL;
-                    }
+                    return LineSeparator.CRNL;
                 }
-                else if ( prev == '\r' )
+                else
                 {
-                    return LineSeparator.CR;
+                    return LineSeparator.NL;
                 }
-                prev = ch;
             }
-            throw new ManipulationException( "Could not determine end-of-line marker mode" );
-        }
-        catch ( IOException ioe )
-        {
-            throw new ManipulationException( "Could not determine end-of-line marker mode", ioe );
+            else if ( prev == '\r' )
+            {
+                return LineSeparator.CR;
+            }
+            prev = ch;
         }
+        throw new ManipulationException( "Could not determine end-of-line marker mode" );
     }
 }
@@ -0,0 +1,553 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A set of edits to the original text of a POM, each replacing a range of bytes, which are applied by copying the
+ * original content with the replacements in a single pass. This preserves the formatting of the POM exactly and
+ * avoids building and serialising a JDOM document for the common case where only values, such as versions, have
+ * changed.
+ * <p>
+ * The edits are found by comparing the model the content was parsed from with the changed model. If the changes are
+ * structural (e.g. an element is added or removed) or cannot otherwise be located in the text no plan is created and
+ * the POM must be written via JDOM instead.
+ */
+class PomEditPlan
+{
+    private static final Logger logger = LoggerFactory.getLogger( PomEditPlan.class );
+
+    private static final Pattern ENCODING = Pattern.compile( "^<\\?xml[^>]*encoding\\s*=\\s*[\"']([^\"']+)[\"']" );
+
+    private static final class Edit
+    {
+        private final int start;
+
+        private final int end;
+
+        private final String text;
+
+        private Edit( int start, int end, String text )
+        {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+    }
+
+    private final byte[] content;
+
+    private final int rootEnd;
+
+    private final List<Edit> edits = new ArrayList<>();
+
+    private PomEditPlan( byte[] content, int rootEnd )
+    {
+        this.content = content;
+        this.rootEnd = rootEnd;
+    }
+
+    /**
+     * Creates the edits needed to update the content from the original model to the changed model.
+     *
+     * @param content the POM content that the original model was parsed from.
+     * @param original the model parsed from the content.
+     * @param model the changed model.
+     * @param addSchema whether the POM namespace and schema location must be present on the root element.
+     * @return the plan, or null if the POM must be written via JDOM.
+     */
+    static PomEditPlan create( byte[] content, Model original, Model model, boolean addSchema )
+    {
+        return create( content, flatten( original ), flatten( model ), model, addSchema );
+    }
+
+    /**
+     * Creates the edits needed to update the content from the original model to the changed model.
+     *
+     * @param content the POM content that the original model was parsed from.
+     * @param originalValues the flattened original model.
+     * @param values the flattened changed model.
+     * @param model the changed model.
+     * @param addSchema whether the POM namespace and schema location must be present on the root element.
+     * @return the plan, or null if the POM must be written via JDOM.
+     * @see #flatten(Model)
+     */
+    static PomEditPlan create( byte[] content, Map<String, String> originalValues, Map<String, String> values,
+                               Model model, boolean addSchema )
+    {
+        if ( !isUTF8( content ) )
+        {
+            logger.debug( "Unable to edit POM text as it is not UTF-8" );
+            return null;
+        }
+
+        if ( originalValues == null || values == null || !originalValues.keySet().equals( values.keySet() ) )
+        {
+            logger.debug( "Unable to edit POM text as its structure has changed" );
+            return null;
+        }
+
+        final Scanner scanner = new Scanner( content );
+        if ( !scanner.scan() )
+        {
+            logger.debug( "Unable to edit POM text as it could not be scanned" );
+            return null;
+        }
+        if ( addSchema && !( scanner.rootTag.contains( "xmlns=\"http://maven.apache.org/POM/" + model.getModelVersion() )
+                        && scanner.rootTag.contains( "schemaLocation=" ) ) )
+        {
+            logger.debug( "Unable to edit POM text as the schema must be added" );
+            return null;
+        }
+
+        final PomEditPlan plan = new PomEditPlan( content, scanner.rootEnd );
+
+        for ( Map.Entry<String, String> entry : values.entrySet() )
+        {
+            final String path = entry.getKey();
+            final String value = entry.getValue();
+            final String originalValue = originalValues.get( path );
+
+            if ( Objects.equals( value, originalValue ) )
+            {
+                continue;
+            }
+            // Either a change between a value and child elements, or to an attribute.
+            if ( value == null || originalValue == null || path.contains( "@" ) )
+            {
+                logger.debug( "Unable to edit POM text as {} has changed structurally", path );
+                return null;
+            }
+
+            final int[] range = scanner.values.get( path );
+            if ( range == null || value.indexOf( '\n' ) >= 0 || value.indexOf( '\r' ) >= 0 )
+            {
+                logger.debug( "Unable to edit POM text for {}", path );
+                return null;
+            }
+
+            final String raw = new String( content, range[0], range[1] - range[0], StandardCharsets.UTF_8 );
+            final String trimmed = raw.trim();
+
+            if ( !trimmed.equals( originalValue ) || raw.indexOf( '&' ) >= 0 )
+            {
+                logger.debug( "Unable to edit POM text for {} as '{}' does not match '{}'", path, raw, originalValue );
+                return null;
+            }
+            // The whitespace around the value is ASCII so the offsets in the text are also byte offsets.
+            final int start = range[0] + raw.indexOf( trimmed );
+            plan.edits.add( new Edit( start, start + trimmed.getBytes( StandardCharsets.UTF_8 ).length,
+                                      escape( value ) ) );
+        }
+        return plan;
+    }
+
+    /**
+     * @return the text after the root element.
+     */
+    String getOuttro()
+    {
+        return new String( content, rootEnd, content.length - rootEnd, StandardCharsets.UTF_8 );
+    }
+
+    void setOuttro( String outtro )
+    {
+        edits.add( new Edit( rootEnd, content.length, outtro ) );
+    }
+
+    /**
+     * @return the number of edits.
+     */
+    int size()
+    {
+        return edits.size();
+    }
+
+    /**
+     * @return the content with the edits applied.
+     */
+    byte[] render()
+    {
+        edits.sort( Comparator.comparingInt( e -> e.start ) );
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream( content.length + 1024 );
+        int position = 0;
+        for ( Edit edit : edits )
+        {
+            out.write( content, position, edit.start - position );
+            final byte[] text = edit.text.getBytes( StandardCharsets.UTF_8 );
+            out.write( text, 0, text.length );
+            position = edit.end;
+        }
+        out.write( content, position, content.length - position );
+        return out.toByteArray();
+    }
+
+    /**
+     * The markup is scanned a byte at a time which is only possible if the content is UTF-8 (or ASCII).
+     */
+    private static boolean isUTF8( byte[] content )
+    {
+        int start = 0;
+        if ( content.length >= 3 && ( content[0] & 0xFF ) == 0xEF && ( content[1] & 0xFF ) == 0xBB
+                        && ( content[2] & 0xFF ) == 0xBF )
+        {
+            start = 3;
+        }
+        else if ( content.length >= 2 && ( ( content[0] & 0xFF ) == 0xFE || ( content[0] & 0xFF ) == 0xFF ) )
+        {
+            return false;
+        }
+        final Matcher matcher = ENCODING.matcher(
+                        new String( content, start, Math.min( 100, content.length - start ), StandardCharsets.US_ASCII ) );
+
+        return !matcher.find() || "UTF-8".equalsIgnoreCase( matcher.group( 1 ) ) || "US-ASCII".equalsIgnoreCase(
+                        matcher.group( 1 ) );
+    }
+
+    private static String escape( String value )
+    {
+        return value.replace( "&", "&amp;" ).replace( "<", "&lt;" ).replace( ">", "&gt;" );
+    }
+
+    /**
+     * Finds the top level elements that differ between two flattened models, so that a POM which cannot be edited
+     * need only have those sections converted.
+     *
+     * @param originalValues the flattened original model.
+     * @param values the flattened changed model.
+     * @return the names of the top level elements with a different value, attribute or structure.
+     */
+    static Set<String> changedElements( Map<String, String> originalValues, Map<String, String> values )
+    {
+        final Set<String> result = new HashSet<>();
+
+        addChangedElements( values, originalValues, result );
+        addChangedElements( originalValues, values, result );
+        return result;
+    }
+
+    private static void addChangedElements( Map<String, String> values, Map<String, String> others,
+                                            Set<String> result )
+    {
+        for ( Map.Entry<String, String> entry : values.entrySet() )
+        {
+            final String path = entry.getKey();
+
+            if ( others.containsKey( path ) && Objects.equals( entry.getValue(), others.get( path ) ) )
+            {
+                continue;
+            }
+            // The path of a top level element is /project[0]/name[index] ; attributes of the root are ignored.
+            final int start = path.indexOf( '/', 1 );
+            if ( start > 0 )
+            {
+                result.add( path.substring( start + 1, path.indexOf( '[', start ) ) );
+            }
+        }
+    }
+
+    /**
+     * Serialises the model and flattens it into a map of element paths (see {@link Scanner}) to their values. Elements
+     * with children map to null and attributes are included as <code>path@name</code>.
+     *
+     * @param model the model to flatten.
+     * @return the flattened model, or null if it cannot be serialised.
+     */
+    static Map<String, String> flatten( Model model )
+    {
+        final StringWriter writer = new StringWriter();
+        try
+        {
+            new MavenXpp3Writer().write( writer, model );
+
+            final Xpp3Dom dom = Xpp3DomBuilder.build( new StringReader( writer.toString() ) );
+            final Map<String, String> result = new HashMap<>();
+
+            flatten( dom, "/" + dom.getName() + "[0]", result );
+            return result;
+        }
+        catch ( IOException | XmlPullParserException e )
+        {
+            logger.debug( "Unable to serialise model {}: {}", model.getId(), e.getMessage() );
+            return null;
+        }
+    }
+
+    private static void flatten( Xpp3Dom dom, String path, Map<String, String> result )
+    {
+        for ( String attribute : dom.getAttributeNames() )
+        {
+            result.put( path + '@' + attribute, dom.getAttribute( attribute ) );
+        }
+        if ( dom.getChildCount() == 0 )
+        {
+            result.put( path, dom.getValue() == null ? "" : dom.getValue() );
+        }
+        else
+        {
+            final Map<String, Integer> indices = new HashMap<>();
+            result.put( path, null );
+
+            for ( Xpp3Dom child : dom.getChildren() )
+            {
+                final int index = indices.merge( child.getName(), 1, Integer::sum ) - 1;
+                flatten( child, path + '/' + child.getName() + '[' + index + ']', result );
+            }
+        }
+    }
+
+    /**
+     * Finds the range of the text of every element that only contains text in the content. Elements are identified by
+     * their path from the root, e.g. <code>/project[0]/dependencies[0]/dependency[1]/version[0]</code>, where the
+     * index distinguishes elements with the same name and parent.
+     */
+    private static final class Scanner
+    {
+        private final byte[] content;
+
+        private final Map<String, int[]> values = new HashMap<>();
+
+        private String rootTag;
+
+        private int rootEnd = -1;
+
+        private Scanner( byte[] content )
+        {
+            this.content = content;
+        }
+
+        private static final class Frame
+        {
+            private final String name;
+
+            private final String path;
+
+            private final int textStart;
+
+            private final Map<String, Integer> indices = new HashMap<>();
+
+            // Whether the element contains anything other than text.
+            private boolean complex;
+
+            private Frame( String name, String path, int textStart )
+            {
+                this.name = name;
+                this.path = path;
+                this.textStart = textStart;
+            }
+        }
+
+        /**
+         * @return false if the content contains anything that cannot be handled, e.g. a DTD.
+         */
+        private boolean scan()
+        {
+            final Deque<Frame> stack = new ArrayDeque<>();
+            int i = 0;
+
+            while ( i < content.length )
+            {
+                if ( content[i] != '<' )
+                {
+                    i++;
+                    continue;
+                }
+
+                final int end;
+                if ( startsWith( i, "<!--" ) )
+                {
+                    end = skipTo( "-->", i + 4 );
+                }
+                else if ( startsWith( i, "<![CDATA[" ) )
+                {
+                    end = skipTo( "]]>", i + 9 );
+                }
+                else if ( startsWith( i, "<?" ) )
+                {
+                    end = skipTo( "?>", i + 2 );
+                }
+                else if ( startsWith( i, "<!" ) )
+                {
+                    return false;
+                }
+                else if ( startsWith( i, "</" ) )
+                {
+                    end = skipTo( ">", i + 2 );
+                    if ( end < 0 || stack.isEmpty() )
+                    {
+                        return false;
+                    }
+                    final Frame frame = stack.pop();
+                    if ( !frame.name.equals( new String( content, i + 2, end - i - 3, StandardCharsets.UTF_8 ).trim() ) )
+                    {
+                        return false;
+                    }
+                    if ( !frame.complex )
+                    {
+                        values.put( frame.path, new int[] { frame.textStart, i } );
+                    }
+                    if ( stack.isEmpty() )
+                    {
+                        rootEnd = end;
+                    }
+                    i = end;
+                    continue;
+                }
+                else
+                {
+                    end = startTagEnd( i );
+                    if ( end < 0 || ( stack.isEmpty() && rootTag != null ) )
+                    {
+                        return false;
+                    }
+
+                    int nameEnd = i + 1;
+                    while ( nameEnd < end && !Character.isWhitespace( content[nameEnd] ) && content[nameEnd] != '/'
+                                    && content[nameEnd] != '>' )
+                    {
+                        nameEnd++;
+                    }
+                    final String name = new String( content, i + 1, nameEnd - i - 1, StandardCharsets.UTF_8 );
+                    final Frame parent = stack.peek();
+                    final String path;
+
+                    if ( parent == null )
+                    {
+                        rootTag = new String( content, i, end - i, StandardCharsets.UTF_8 );
+                        path = "/" + name + "[0]";
+                    }
+                    else
+                    {
+                        parent.complex = true;
+                        path = parent.path + '/' + name + '[' + ( parent.indices.merge( name, 1, Integer::sum ) - 1 )
+                                        + ']';
+                    }
+
+                    if ( content[end - 2] == '/' )
+                    {
+                        if ( parent == null )
+                        {
+                            rootEnd = end;
+                        }
+                    }
+                    else
+                    {
+                        stack.push( new Frame( name, path, end ) );
+                    }
+                    i = end;
+                    continue;
+                }
+
+                // A comment, CDATA or processing instruction.
+                if ( end < 0 )
+                {
+                    return false;
+                }
+                if ( !stack.isEmpty() )
+                {
+                    stack.peek().complex = true;
+                }
+                i = end;
+            }
+            return stack.isEmpty() && rootEnd > 0;
+        }
+
+        private boolean startsWith( int offset, String prefix )
+        {
+            if ( offset + prefix.length() > content.length )
+            {
+                return false;
+            }
+            for ( int i = 0; i < prefix.length(); i++ )
+            {
+                if ( content[offset + i] != prefix.charAt( i ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the offset after the next occurrence of the string, or -1.
+         */
+        private int skipTo( String s, int from )
+        {
+            for ( int i = from; i <= content.length - s.length(); i++ )
+            {
+                if ( startsWith( i, s ) )
+                {
+                    return i + s.length();
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return the offset after the end of the start tag, allowing for quoted attribute values, or -1.
+         */
+        private int startTagEnd( int offset )
+        {
+            byte quote = 0;
+            for ( int i = offset + 1; i < content.length; i++ )
+            {
+                final byte c = content[i];
+                if ( quote != 0 )
+                {
+                    if ( c == quote )
+                    {
+                        quote = 0;
+                    }
+                }
+                else if ( c == '"' || c == '\'' )
+                {
+                    quote = c;
+                }
+                else if ( c == '>' )
+                {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+    }
+}
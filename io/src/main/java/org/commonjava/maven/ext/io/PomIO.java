@@ -15,46 +15,48 @@
  */
 package org.commonjava.maven.ext.io;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang.reflect.FieldUtils;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.config.ReleaseDescriptorBuilder;
 import org.apache.maven.shared.release.config.ReleaseUtils;
-import org.apache.maven.shared.release.transform.ModelETL;
-import org.apache.maven.shared.release.transform.ModelETLRequest;
-import org.apache.maven.shared.release.transform.jdom2.JDomModelETL;
-import org.apache.maven.shared.release.transform.jdom2.JDomModelETLFactory;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.annotation.ConfigValue;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.commonjava.maven.ext.common.jdom.JDOMModelConverter;
+import org.commonjava.maven.ext.common.jdom.PomDocument;
 import org.commonjava.maven.ext.common.model.Project;
 import org.commonjava.maven.ext.common.session.MavenSessionHandler;
 import org.commonjava.maven.ext.common.util.LineSeparator;
 import org.commonjava.maven.ext.common.util.ManifestUtils;
 import org.commonjava.maven.galley.maven.parse.PomPeek;
-import org.jdom2.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,17 +72,41 @@ public class PomIO
     // TODO: Remove this if no side affects reported in 2022.
     public static final String PARSE_POM_TEMPLATES = "parsePomTemplates";
 
+    /**
+     * Whether changed POMs are rewritten in parallel. Defaults to true.
+     */
+    @ConfigValue( docIndex = "index.html#pom-rewriting" )
+    public static final String PARALLEL_REWRITE = "parallelRewrite";
+
+    /**
+     * Whether POMs where only values have changed are rewritten by editing their original text. Defaults to true.
+     */
+    @ConfigValue( docIndex = "index.html#pom-rewriting" )
+    public static final String EDIT_REWRITE = "editRewrite";
+
+    /**
+     * The directory to save a snapshot of the parsed reactor in, so that later runs need only parse the POMs that
+     * have changed. Disabled by default.
+     */
+    @ConfigValue( docIndex = "index.html#reactor-snapshot" )
+    public static final String REACTOR_SNAPSHOT_DIRECTORY = "reactorSnapshotDirectory";
+
     private static final String MODIFIED_BY = "Modified by POM Manipulation Extension for Maven";
 
     private static final Logger logger = LoggerFactory.getLogger( PomIO.class );
 
-    private final JDomModelETLFactory modelETLFactories = new JDomModelETLFactory();
-    private final ReleaseDescriptorBuilder releaseDescriptorBuilder = new ReleaseDescriptorBuilder();
-
-    private final JDOMModelConverter jdomModelConverter = new JDOMModelConverter( );
+    // Whether the POM namespace and schema are added when writing, as the release plugin would by default.
+    private final boolean addSchema = ReleaseUtils.buildReleaseDescriptor( new ReleaseDescriptorBuilder() )
+                                                  .isAddSchema();
 
     private final boolean parsePomTemplates;
 
+    private final boolean parallelRewrite;
+
+    private final boolean editRewrite;
+
+    private final File reactorSnapshotDirectory;
+
     private String manifestComment;
 
     @Inject
@@ -88,25 +114,191 @@ public class PomIO
     {
         parsePomTemplates = Boolean.parseBoolean(
                         handler.getUserProperties().getProperty( PARSE_POM_TEMPLATES, "true" ) );
+        parallelRewrite = Boolean.parseBoolean(
+                        handler.getUserProperties().getProperty( PARALLEL_REWRITE, "true" ) );
+        editRewrite = Boolean.parseBoolean( handler.getUserProperties().getProperty( EDIT_REWRITE, "true" ) );
+
+        final String snapshotDirectory = handler.getUserProperties().getProperty( REACTOR_SNAPSHOT_DIRECTORY );
+        reactorSnapshotDirectory = snapshotDirectory == null ? null : new File( snapshotDirectory );
     }
 
     // Test use only.
     public PomIO()
     {
         parsePomTemplates = true;
+        parallelRewrite = true;
+        editRewrite = true;
+        reactorSnapshotDirectory = null;
+    }
+
+    // Test use only.
+    PomIO( File reactorSnapshotDirectory )
+    {
+        parsePomTemplates = true;
+        parallelRewrite = true;
+        editRewrite = true;
+        this.reactorSnapshotDirectory = reactorSnapshotDirectory;
     }
 
+    /**
+     * Discovers and reads the POMs of the reactor starting from the top level POM.
+     * <p>
+     * If {@link #REACTOR_SNAPSHOT_DIRECTORY} is set a snapshot of the reactor is loaded from and saved to it. If none
+     * of the POMs, nor the existence of the parent and module files they refer to, have changed since the snapshot
+     * was saved the hierarchy is not discovered again ; otherwise only the POMs whose content has changed are parsed.
+     *
+     * @param pom the top level POM.
+     * @return the projects of the reactor.
+     * @throws ManipulationException if an error occurs.
+     */
     public List<Project> parseProject( final File pom ) throws ManipulationException
     {
-        final List<PomPeek> peeked = peekAtPomHierarchy( pom );
+        final File executionRoot;
         try
         {
-            return readModelsForManipulation( pom.getCanonicalFile(), peeked );
+            executionRoot = pom.getCanonicalFile();
         }
         catch ( IOException e )
         {
             throw new ManipulationException( "Error getting canonical file", e );
         }
+
+        File snapshotFile = null;
+        ReactorSnapshot snapshot = null;
+        List<DiscoveredPom> discovered = null;
+
+        if ( reactorSnapshotDirectory != null )
+        {
+            snapshotFile = ReactorSnapshot.getFile( reactorSnapshotDirectory, executionRoot );
+            snapshot = ReactorSnapshot.load( snapshotFile );
+            discovered = discoverFromSnapshot( snapshot );
+        }
+
+        if ( discovered == null )
+        {
+            discovered = peekAtPomHierarchy( pom );
+        }
+        else
+        {
+            logger.info( "Reactor of {} POMs is unchanged since snapshot {}", discovered.size(), snapshotFile );
+            // Every model is taken from the snapshot so there is no need to save it again.
+            snapshotFile = null;
+        }
+
+        final List<ParsedPom> models = readModels( discovered, snapshot, reactorSnapshotDirectory != null );
+
+        // The models are saved before they are returned, and so modified.
+        if ( snapshotFile != null )
+        {
+            final List<ReactorSnapshot.Entry> entries = new ArrayList<>( discovered.size() );
+            for ( int i = 0; i < discovered.size(); i++ )
+            {
+                final DiscoveredPom d = discovered.get( i );
+                entries.add( new ReactorSnapshot.Entry( d.pom, models.get( i ).hash, toGAV( d.key ),
+                                                        toGAV( d.parentKey ), d.inheritanceRoot, d.references,
+                                                        models.get( i ).model ) );
+            }
+            new ReactorSnapshot( parsePomTemplates, entries ).save( snapshotFile );
+        }
+
+        return readModelsForManipulation( executionRoot, discovered, models );
+    }
+
+    /**
+     * Returns the POMs recorded in the snapshot if neither their content, nor the existence of the files they refer
+     * to, has changed ; in which case discovering the hierarchy again would find the same POMs.
+     *
+     * @param snapshot the snapshot, which may be null.
+     * @return the POMs, with their content already read, or null if the hierarchy must be discovered.
+     * @throws ManipulationException if an error occurs.
+     */
+    private List<DiscoveredPom> discoverFromSnapshot( final ReactorSnapshot snapshot )
+        throws ManipulationException
+    {
+        if ( snapshot == null || snapshot.isParsePomTemplates() != parsePomTemplates )
+        {
+            return null;
+        }
+
+        try
+        {
+            final List<DiscoveredPom> result = snapshot.getEntries().parallelStream().map( e -> {
+                if ( !e.pom.exists() )
+                {
+                    return null;
+                }
+                for ( final Map.Entry<File, Boolean> reference : e.references.entrySet() )
+                {
+                    if ( reference.getKey().exists() != reference.getValue() )
+                    {
+                        return null;
+                    }
+                }
+                try
+                {
+                    final byte[] content = Files.readAllBytes( e.pom.toPath() );
+                    if ( !ReactorSnapshot.hash( content ).equals( e.hash ) )
+                    {
+                        return null;
+                    }
+                    final DiscoveredPom d = new DiscoveredPom( e.pom, fromGAV( e.key ), fromGAV( e.parentKey ) );
+                    d.inheritanceRoot = e.inheritanceRoot;
+                    d.references.putAll( e.references );
+                    d.content = content;
+                    d.hash = e.hash;
+                    return d;
+                }
+                catch ( IOException ex )
+                {
+                    throw new ManipulationUncheckedException(
+                                    new ManipulationException( "Failed to read POM: {}", e.pom, ex ) );
+                }
+            } ).collect( Collectors.toList() );
+
+            return result.contains( null ) ? null : result;
+        }
+        catch ( ManipulationUncheckedException e )
+        {
+            throw (ManipulationException) e.getCause();
+        }
+    }
+
+    private static String[] toGAV( ProjectVersionRef ref )
+    {
+        return ref == null ?
+                        null :
+                        new String[] { ref.getGroupId(), ref.getArtifactId(), ref.getVersionString() };
+    }
+
+    private static ProjectVersionRef fromGAV( String[] gav )
+    {
+        return gav == null ? null : new SimpleProjectVersionRef( gav[0], gav[1], gav[2] );
+    }
+
+    /**
+     * Parsing each POM is independent so is done in parallel; the models are collected in the same order as the
+     * discovered POMs so the projects are created exactly as they would be sequentially.
+     *
+     * @param discovered the POMs resolved from the top level file.
+     * @param snapshot the snapshot to take the models of unchanged POMs from, which may be null.
+     * @param hashed whether the hash of each POM is needed, to take its model from or save it to a snapshot.
+     * @return the parsed POMs.
+     * @throws ManipulationException if an error occurs.
+     */
+    private static List<ParsedPom> readModels( final List<DiscoveredPom> discovered, final ReactorSnapshot snapshot,
+                                               final boolean hashed )
+        throws ManipulationException
+    {
+        try
+        {
+            return discovered.parallelStream()
+                             .map( d -> readModel( d, snapshot, hashed ) )
+                             .collect( Collectors.toList() );
+        }
+        catch ( ManipulationUncheckedException e )
+        {
+            throw (ManipulationException) e.getCause();
+        }
     }
 
     /**
@@ -114,43 +306,32 @@ public class PomIO
      * {@link MavenProject#getOriginalModel()} instance is set.
      *
      * @param executionRoot the top level pom file.
-     * @param peeked a collection of poms resolved from the top level file.
+     * @param discovered a collection of poms resolved from the top level file.
+     * @param models the parsed poms, in the same order.
      * @return a collection of Projects
-     * @throws ManipulationException if an error occurs.
      */
-    private List<Project> readModelsForManipulation( File executionRoot, final List<PomPeek> peeked )
-        throws ManipulationException
+    private List<Project> readModelsForManipulation( File executionRoot, final List<DiscoveredPom> discovered,
+                                                     final List<ParsedPom> models )
     {
         final List<Project> projects = new ArrayList<>();
         final HashMap<Project, ProjectVersionRef> projectToParent = new HashMap<>(  );
 
-        for ( final PomPeek peek : peeked )
+        for ( int i = 0; i < discovered.size(); i++ )
         {
-            final File pom = peek.getPom();
+            final DiscoveredPom d = discovered.get( i );
+            final File pom = d.pom;
+            final ParsedPom parsed = models.get( i );
 
-            // Sucks, but we have to brute-force reading in the raw model.
-            // The effective-model building, below, has a tantalizing getRawModel()
-            // method on the result, BUT this seems to return models that have
-            // the plugin versions set inside profiles...so they're not entirely
-            // raw.
-            Model raw;
-            try ( InputStream in = new FileInputStream( pom ) )
-            {
-                raw = new MavenXpp3Reader().read( in );
-            }
-            catch ( final IOException | XmlPullParserException e )
-            {
-                throw new ManipulationException( "Failed to build model for POM: ({}) : {}", pom, e.getMessage(), e );
-            }
-
-            if ( raw == null )
+            if ( parsed.model == null )
             {
                 continue;
             }
 
-            final Project project = new Project( pom, raw );
-            projectToParent.put( project, peek.getParentKey() );
-            project.setInheritanceRoot( peek.isInheritanceRoot() );
+            final Project project = new Project( pom, parsed.model );
+            projectToParent.put( project, d.parentKey );
+            project.setInheritanceRoot( d.inheritanceRoot );
+            project.setPomContent( parsed.content );
+            project.setLineSeparator( parsed.lineSeparator );
 
             if ( executionRoot.equals( pom ))
             {
@@ -163,49 +344,96 @@ public class PomIO
 
                 project.setExecutionRoot ();
 
-                try
-                {
-                    if ( FileUtils.readFileToString( pom, StandardCharsets.UTF_8 ).contains( MODIFIED_BY ) )
-                    {
-                        project.setIncrementalPME (true);
-                    }
-                }
-                catch ( final IOException e )
+                if ( new String( parsed.content, StandardCharsets.UTF_8 ).contains( MODIFIED_BY ) )
                 {
-                    throw new ManipulationException( "Failed to read POM: {}", pom, e );
+                    project.setIncrementalPME (true);
                 }
             }
 
             projects.add( project );
         }
 
-        // Fill out inheritance info for every project we have created.
+        // Fill out inheritance info for every project we have created. If the PVR refers to something outside of the
+        // hierarchy we'll break the inheritance here.
+        final Map<ProjectVersionRef, Project> projectsByKey = new HashMap<>();
+        for ( Project p : projects )
+        {
+            projectsByKey.putIfAbsent( p.getKey(), p );
+        }
         for ( Project p : projects )
         {
             ProjectVersionRef pvr = projectToParent.get( p );
-            p.setProjectParent( getParent( projects, pvr ) );
+            p.setProjectParent( pvr == null ? null : projectsByKey.get( pvr ) );
         }
 
         return projects;
     }
 
-    private Project getParent( List<Project> projects, ProjectVersionRef pvr )
+    /**
+     * Sucks, but we have to brute-force reading in the raw model. The effective-model building has a tantalizing
+     * getRawModel() method on the result, BUT this seems to return models that have the plugin versions set inside
+     * profiles...so they're not entirely raw.
+     * <p>
+     * The file is read once and its content retained, along with its line separator, so that it need not be read
+     * again to check for the marker or when the POM is rewritten. If the
+     * content is unchanged since the snapshot was saved its model is taken from there rather than parsed again.
+     *
+     * @param discovered the POM to read, whose content may already have been read.
+     * @param snapshot the snapshot to take the model from, which may be null.
+     * @param hashed whether the hash of the content is needed.
+     * @return the content and raw model.
+     * @throws ManipulationUncheckedException wrapping a ManipulationException if the POM cannot be parsed.
+     */
+    private static ParsedPom readModel( DiscoveredPom discovered, ReactorSnapshot snapshot, boolean hashed )
     {
-        for ( Project p : projects )
+        final File pom = discovered.pom;
+        try
         {
-            if ( p.getKey().equals( pvr ) )
+            final byte[] content =
+                            discovered.content != null ? discovered.content : Files.readAllBytes( pom.toPath() );
+            // The hash is only computed if a snapshot is used, and not again if it was checked against the snapshot.
+            final String hash = discovered.hash != null ? discovered.hash :
+                            hashed ? ReactorSnapshot.hash( content ) : null;
+            // Only retained by the project, so released once the models have been read.
+            discovered.content = null;
+            LineSeparator lineSeparator;
+            try
+            {
+                lineSeparator = FileIO.determineEOL( content );
+            }
+            catch ( ManipulationException e )
+            {
+                // Only needed if the POM is rewritten, in which case it is determined from the file as before.
+                lineSeparator = null;
+            }
+            Model model = snapshot == null || hash == null ? null : snapshot.takeModel( pom, hash );
+            if ( model == null )
             {
-                return p;
+                model = new MavenXpp3Reader().read( new ByteArrayInputStream( content ) );
             }
+            else
+            {
+                logger.debug( "Using model of {} from snapshot", pom );
+            }
+            return new ParsedPom( content, hash, lineSeparator, model );
+        }
+        catch ( final IOException | XmlPullParserException e )
+        {
+            throw new ManipulationUncheckedException(
+                            new ManipulationException( "Failed to build model for POM: ({}) : {}", pom, e.getMessage(),
+                                                       e ) );
         }
-        // If the PVR refers to something outside of the hierarchy we'll break the inheritance here.
-        return null;
     }
 
     /**
      * For any project listed as changed (tracked by GA in the session), write the modified model out to disk.
-     * Uses {@link ModelETL} to preserve as much formatting as possible.
-     *
+     * If only values have changed the original text of the POM is edited (see {@link PomEditPlan}), otherwise a
+     * {@link PomDocument} parsed from the content retained when the POM was read is updated, to preserve as much
+     * formatting as possible.
+     * <p>
+     * Each project is written to its own file so, unless {@link #PARALLEL_REWRITE} is disabled, the projects are
+     * written in parallel. Every project is attempted ; if any fail the first failure (in the iteration order of
+     * <code>changed</code>) is thrown with the others added as suppressed exceptions.
      *
      * @param changed the modified Projects to write out.
      * @return gav execution root GAV
@@ -218,38 +446,78 @@ public class PomIO
 
         manifestComment = "Modified by POM Manipulation Extension for Maven " +  ManifestUtils.getManifestInformation(PomIO.class);
 
-        for ( final Project project : changed )
+        final List<Project> projects = new ArrayList<>( changed );
+        final ManipulationException[] failures = new ManipulationException[projects.size()];
+
+        for ( final Project project : projects )
         {
             if ( project.isExecutionRoot() )
             {
                 result = project.getKey();
             }
+        }
 
-            if (logger.isDebugEnabled())
+        IntStream indices = IntStream.range( 0, projects.size() );
+        if ( parallelRewrite )
+        {
+            indices = indices.parallel();
+        }
+        indices.forEach( i -> {
+            try
             {
-                logger.debug( "{} modified! Rewriting.", project );
+                rewritePOM( projects.get( i ) );
             }
+            catch ( ManipulationException e )
+            {
+                failures[i] = e;
+            }
+        } );
 
-            File pom = project.getPom();
+        ManipulationException first = null;
+        for ( ManipulationException failure : failures )
+        {
+            if ( first == null )
+            {
+                first = failure;
+            }
+            else if ( failure != null )
+            {
+                first.addSuppressed( failure );
+            }
+        }
+        if ( first != null )
+        {
+            throw first;
+        }
+        return result;
+    }
 
-            final Model model = project.getModel();
+    private void rewritePOM( final Project project )
+        throws ManipulationException
+    {
+        if (logger.isDebugEnabled())
+        {
+            logger.debug( "{} modified! Rewriting.", project );
+        }
 
-            logger.trace( "Rewriting: {} in place of: {}{}       to POM: {}", model.getId(), project.getKey(), System.lineSeparator(), pom );
+        File pom = project.getPom();
 
-            write( project, pom, model );
+        final Model model = project.getModel();
 
-            // this happens with integration tests!
-            // This is a total hack, but the alternative seems to be adding complexity through a custom model processor.
-            if ( pom.getName()
-                            .equals( "interpolated-pom.xml" ) )
-            {
-                final File dir = pom.getParentFile();
-                pom = dir == null ? new File( "pom.xml" ) : new File( dir, "pom.xml" );
+        logger.trace( "Rewriting: {} in place of: {}{}       to POM: {}", model.getId(), project.getKey(), System.lineSeparator(), pom );
 
-                write( project, pom, model );
-            }
+        write( project, pom, model );
+
+        // this happens with integration tests!
+        // This is a total hack, but the alternative seems to be adding complexity through a custom model processor.
+        if ( pom.getName()
+                        .equals( "interpolated-pom.xml" ) )
+        {
+            final File dir = pom.getParentFile();
+            pom = dir == null ? new File( "pom.xml" ) : new File( dir, "pom.xml" );
+
+            write( project, pom, model );
         }
-        return result;
     }
 
 
@@ -276,193 +544,286 @@ public class PomIO
     private void write( final Project project, final File pom, final Model model )
         throws ManipulationException
     {
-        try
+        // Once the project has been written through a document it is retained in the Project ; until then the
+        // content read when parsing is used, unless writing to another file or the file has since been rewritten.
+        final boolean original = pom.equals( project.getPom() );
+        PomDocument document = original ? project.getPomDocument() : null;
+        final byte[] content = document != null ? document.getContent() :
+                        original && !project.isPomRewritten() ? project.getPomContent() : null;
+        final LineSeparator lineSeparator = document != null ? document.getLineSeparator() :
+                        original ? project.getLineSeparator() : null;
+
+        // The top level elements that differ from the document, when known, so that only those are converted.
+        Set<String> changed = null;
+
+        if ( editRewrite && content != null && lineSeparator != null )
         {
-            // We possibly could store the EOL type in the Project when we first read
-            // the file but we would then have to do a dual read, then write as opposed
-            // to a read, then read + write now.
-            LineSeparator ls = FileIO.determineEOL( pom );
-
-            MavenProject mp = new MavenProject(model);
-            ModelETLRequest request = new ModelETLRequest();
-            request.setLineSeparator( ls.value() );
-            request.setProject( mp );
-            request.setReleaseDescriptor( ReleaseUtils.buildReleaseDescriptor( releaseDescriptorBuilder ) );
-
-            ModelETL etl = modelETLFactories.newInstance( request );
-
-            // Reread in order to fill in JdomModelETL
-            etl.extract( pom );
-
-            // Annoyingly the document is private but we need to access it in order to ensure the model is written to the Document.
-            //
-            // Currently the fields we want to access are private - https://issues.apache.org/jira/browse/MRELEASE-1044 requests
-            // them to be protected to avoid this reflection.
-            Document doc = (Document) FieldUtils.getDeclaredField( JDomModelETL.class, "document", true ).get( etl );
+            final Model current = document != null ? document.getModel() : parseModel( content );
+            final Map<String, String> originalValues = current == null ? null : PomEditPlan.flatten( current );
+            final Map<String, String> values = originalValues == null ? null : PomEditPlan.flatten( model );
+            final PomEditPlan plan = values == null ? null :
+                            PomEditPlan.create( content, originalValues, values, model, addSchema );
+            if ( plan != null )
+            {
+                logger.debug( "Rewriting {} with {} edits", pom, plan.size() );
 
-            jdomModelConverter.convertModelToJDOM( model, doc );
+                if ( project.isExecutionRoot() )
+                {
+                    plan.setOuttro( updateOuttro( plan.getOuttro(), lineSeparator ) );
+                }
+                if ( writeIfChanged( pom, content, plan.render() ) )
+                {
+                    // Neither the document nor the content reflect the file so it is read again if the project is
+                    // rewritten.
+                    project.setPomDocument( null );
+                    project.setPomRewritten( true );
+                }
+                return;
+            }
+            if ( values != null )
+            {
+                changed = PomEditPlan.changedElements( originalValues, values );
+            }
+        }
 
-            if ( project.isExecutionRoot() )
+        if ( document == null )
+        {
+            // The document is only parsed when the text cannot be edited, from the content read when parsing if it
+            // still reflects the file.
+            try
             {
-                // Previously it was possible to add a comment outside of the root element (which maven3-model-jdom-support handled)
-                // but the release plugin code only takes account of code within the root element and everything else is handled separately.
-                //
-                String outtro = (String) FieldUtils.getDeclaredField( JDomModelETL.class, "outtro", true ).get( etl );
-
-                String commentStart = ls.value() +
-                                "<!--" +
-                                ls.value();
-                String commentEnd = ls.value() +
-                                "-->" +
-                                ls.value();
-
-                if ( outtro.equals( ls.value() ) )
+                if ( content != null && lineSeparator != null )
                 {
-                    logger.debug( "Outtro contains newlines only" );
-
-                    outtro = commentStart + manifestComment + commentEnd;
+                    document = PomDocument.parse( content, lineSeparator );
                 }
                 else
                 {
-                    outtro = outtro.replaceAll( "Modified by.*", manifestComment );
+                    // The EOL type is stored in the Project when the file is first read.
+                    LineSeparator ls = lineSeparator != null ? lineSeparator : FileIO.determineEOL( pom );
+                    document = PomDocument.parse( Files.readAllBytes( pom.toPath() ), ls );
                 }
-                FieldUtils.writeDeclaredField( etl,
-                                               "outtro",
-                                               outtro,
-                                               true);
             }
+            catch ( IOException | ManipulationException e )
+            {
+                throw new ManipulationException( "Failed to parse POM for rewrite: {}. Reason: {}", pom,
+                                                 e.getMessage(), e );
+            }
+            if ( original )
+            {
+                project.setPomDocument( document );
+            }
+        }
+
+        // A new converter is used for every write as it is not safe to share between threads. Only the sections
+        // found to differ from the model the document was parsed from (or last written with) are updated.
+        new JDOMModelConverter().convertModelToJDOM( model, changed, document.getDocument() );
+
+        if ( project.isExecutionRoot() )
+        {
+            document.setOuttro( updateOuttro( document.getOuttro(), document.getLineSeparator() ) );
+        }
 
-            etl.load( pom );
+        final byte[] rendered = document.render( model.getModelVersion(), addSchema );
+        writeIfChanged( pom, document.getContent(), rendered );
+        document.setContent( rendered );
+        document.setModel( model.clone() );
+    }
+
+    /**
+     * @param content the content of a POM.
+     * @return the model read from the content, or null if it cannot be read, in which case the whole document is
+     * converted instead.
+     */
+    private static Model parseModel( final byte[] content )
+    {
+        try
+        {
+            return new MavenXpp3Reader().read( new ByteArrayInputStream( content ) );
         }
-        catch ( ReleaseExecutionException | IllegalAccessException e )
+        catch ( IOException | XmlPullParserException e )
         {
-            throw new ManipulationException( "Failed to parse POM for rewrite: {}. Reason: ", pom, e.getMessage(), e );
+            return null;
         }
     }
 
-    private List<PomPeek> peekAtPomHierarchy(final File topPom)
+    /**
+     * Manipulators report a project as changed whenever they may have changed it, so the rendered POM is only
+     * written if it differs from the current content of the file. This avoids needlessly changing the timestamp of
+     * the file, which would invalidate incremental builds.
+     *
+     * @param pom the file to write to.
+     * @param current the current content of the file, or null if it is not known and must be read.
+     * @param rendered the content to write.
+     * @return whether the file was written.
+     * @throws ManipulationException if an error occurs.
+     */
+    private static boolean writeIfChanged( final File pom, final byte[] current, final byte[] rendered )
         throws ManipulationException
     {
-        final List<PomPeek> peeked = new ArrayList<>();
+        try
+        {
+            if ( pom.exists() && Arrays.equals( rendered,
+                                                current != null ? current : Files.readAllBytes( pom.toPath() ) ) )
+            {
+                logger.debug( "Not rewriting {} as it is unchanged", pom );
+                return false;
+            }
+            Files.write( pom.toPath(), rendered );
+            return true;
+        }
+        catch ( IOException e )
+        {
+            throw new ManipulationException( "Error writing POM {}: {}", pom, e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Adds or updates the comment recording the PME version after the root element of the execution root.
+     *
+     * @param outtro the text after the root element.
+     * @param lineSeparator the line separator of the POM.
+     * @return the updated text.
+     */
+    private String updateOuttro( String outtro, LineSeparator lineSeparator )
+    {
+        // Previously it was possible to add a comment outside of the root element (which maven3-model-jdom-support handled)
+        // but the release plugin code only takes account of code within the root element and everything else is handled separately.
+        //
+        final String ls = lineSeparator.value();
+
+        String commentStart = ls +
+                        "<!--" +
+                        ls;
+        String commentEnd = ls +
+                        "-->" +
+                        ls;
+
+        if ( outtro == null || outtro.equals( ls ) )
+        {
+            logger.debug( "Outtro contains newlines only" );
+
+            return commentStart + manifestComment + commentEnd;
+        }
+        else
+        {
+            return outtro.replaceAll( "Modified by.*", manifestComment );
+        }
+    }
+
+    /**
+     * Discovers the POMs in the hierarchy by following the parent relativePath and modules of each POM, starting
+     * from the top level POM. The POMs are discovered breadth first ; each level is peeked at, and its parent and
+     * module files resolved, in parallel while the results are processed in order so that the POMs are returned in
+     * the same order as a sequential search would.
+     *
+     * @param topPom the top level POM.
+     * @return the POMs in the order they were discovered.
+     * @throws ManipulationException if an error occurs.
+     */
+    private List<DiscoveredPom> peekAtPomHierarchy(final File topPom)
+        throws ManipulationException
+    {
+        final List<DiscoveredPom> peeked = new ArrayList<>();
 
         try
         {
-            final LinkedList<File> pendingPoms = new LinkedList<>();
-            pendingPoms.add( topPom.getCanonicalFile() );
+            List<File> pendingPoms = Collections.singletonList( topPom.getCanonicalFile() );
 
             final String topDir = topPom.getCanonicalFile().getParentFile().getCanonicalPath();
 
-            final Set<File> seen = new HashSet<>();
+            // The canonical file of every POM that has been queued, whether or not it has been peeked at yet.
+            final Set<File> queued = new HashSet<>( pendingPoms );
 
             File topLevelParent = topPom;
 
             while ( !pendingPoms.isEmpty() )
             {
-                final File pom = pendingPoms.removeFirst();
-                seen.add( pom );
-
-                logger.debug( "PEEK: {}", pom );
-
-                final PomPeek peek = new PomPeek( pom );
-
-                // Deprecated : we now default to scanning every XML file even templated
-                // ones but the if block provides a fallback if there are issues.
-                //
-                // Effectively either parse_pom_templates [default to true] ||
-                //      parse_pom_templates overridden to false so key MUST be NOT null
-                if ( parsePomTemplates || peek.getKey() != null )
+                final List<PeekedPom> level;
+                try
                 {
-                    peeked.add( peek );
+                    level = pendingPoms.parallelStream().map( this::peek ).collect( Collectors.toList() );
+                }
+                catch ( ManipulationUncheckedException e )
+                {
+                    throw (ManipulationException) e.getCause();
+                }
 
-                    final File dir = pom.getParentFile();
+                final List<File> nextPoms = new ArrayList<>();
 
-                    final String relPath = peek.getParentRelativePath();
-                    if ( relPath != null )
+                for ( final PeekedPom p : level )
+                {
+                    if ( p.peek == null )
                     {
-                        logger.debug( "Found parent relativePath: {} in pom: {}", relPath, pom );
+                        continue;
+                    }
+                    final DiscoveredPom d = new DiscoveredPom( p.peek.getPom(), p.peek.getKey(),
+                                                               p.peek.getParentKey() );
+                    peeked.add( d );
 
-                        File parent = new File( dir, relPath );
-                        if ( parent.isDirectory() )
-                        {
-                            parent = new File( parent, "pom.xml" );
-                        }
+                    if ( p.parent != null )
+                    {
+                        final boolean exists = p.parent.exists();
+                        d.references.put( p.parent, exists );
 
-                        parent = parent.getCanonicalFile();
-                        if ( parent.getParentFile()
-                                   .getCanonicalPath()
-                                   .startsWith( topDir ) && parent.exists() && !seen.contains( parent )
-                            && !pendingPoms.contains( parent ) )
+                        if ( p.parent.getParent().startsWith( topDir ) && exists && queued.add( p.parent ) )
                         {
-                            topLevelParent = parent;
+                            topLevelParent = p.parent;
 
-                            logger.debug( "Possible top-level parent {}", parent );
-                            pendingPoms.add( parent );
+                            logger.debug( "Possible top-level parent {}", p.parent );
+                            nextPoms.add( p.parent );
                         }
                         else
                         {
                             logger.debug( "Skipping reference to non-existent parent relativePath: '{}' in: {}",
-                                    relPath, pom );
+                                          p.peek.getParentRelativePath(), p.peek.getPom() );
                         }
                     }
 
-                    final Set<String> modules = peek.getModules();
-                    if ( modules != null && !modules.isEmpty() )
+                    for ( int i = 0; i < p.modules.size(); i++ )
                     {
-                        for ( final String module : modules )
+                        final File modPom = p.modules.get( i );
+                        final boolean exists = modPom.exists();
+                        d.references.put( modPom, exists );
+
+                        if ( exists && queued.add( p.canonicalModules.get( i ) ) )
                         {
-                            if ( logger.isDebugEnabled() )
-                            {
-                                logger.debug( "Found module: {} in pom: {}", module, pom );
-                            }
-
-                            File modPom = new File( dir, module );
-                            if ( modPom.isDirectory() )
-                            {
-                                modPom = new File( modPom, "pom.xml" );
-                            }
-
-                            if ( modPom.exists() && !seen.contains( modPom )
-                                && !pendingPoms.contains( modPom ) )
-                            {
-                                pendingPoms.addLast( modPom );
-                            }
-                            else
-                            {
-                                logger.debug( "Skipping reference to non-existent module: '{}' in: {}", module, pom );
-                            }
+                            nextPoms.add( modPom );
+                        }
+                        else
+                        {
+                            logger.debug( "Skipping reference to non-existent module: '{}' in: {}", modPom,
+                                          p.peek.getPom() );
                         }
                     }
                 }
-                else
-                {
-                    logger.debug( "Skipping {} as its a template file.", pom);
-                }
+                pendingPoms = nextPoms;
             }
 
-            final HashSet<ProjectVersionRef> projectrefs = new HashSet<>();
+            // Index the projects by GA so that standalone POMs are found in linear time.
+            final Set<ProjectRef> projectrefs = new HashSet<>();
 
-            for ( final PomPeek p : peeked )
+            for ( final DiscoveredPom p : peeked )
             {
-                if ( p.getKey() != null )
+                if ( p.key != null )
                 {
-                    projectrefs.add( p.getKey() );
+                    projectrefs.add( p.key.asProjectRef() );
                 }
-                if ( p.getPom().equals( topLevelParent ) )
+                if ( p.pom.equals( topLevelParent ) )
                 {
-                    logger.debug( "Setting top level parent to {} :: {}", p.getPom(), p.getKey() );
-                    p.setInheritanceRoot( true );
+                    logger.debug( "Setting top level parent to {} :: {}", p.pom, p.key );
+                    p.inheritanceRoot = true;
                 }
             }
 
-            for ( final PomPeek p : peeked )
+            for ( final DiscoveredPom p : peeked )
             {
-                if ( p.getParentKey() == null ||
-                     ! seenThisParent(projectrefs, p.getParentKey()))
+                if ( p.parentKey == null ||
+                     ! projectrefs.contains( p.parentKey.asProjectRef() ) )
                 {
 
-                    logger.debug( "Found a standalone pom {} :: {}", p.getPom(), p.getKey() );
+                    logger.debug( "Found a standalone pom {} :: {}", p.pom, p.key );
 
-                    p.setInheritanceRoot( true );
+                    p.inheritanceRoot = true;
                 }
             }
         }
@@ -475,22 +836,134 @@ public class PomIO
     }
 
     /**
-     * Search the list of project references to establish if this parent reference exists in them. This
-     * determines whether the module is inheriting something inside the project or an external reference.
-
-     * @param projectrefs GAVs to search
-     * @param parentKey Key to find
-     * @return whether its been found
+     * Peeks at a single POM and resolves the files of its parent and modules ; whether they are searched is decided
+     * by the caller.
+     *
+     * @param pom the POM to peek at.
+     * @return the peeked POM, with a null peek if it is a template that should be skipped.
+     * @throws ManipulationUncheckedException wrapping a ManipulationException if an error occurs.
      */
-    private boolean seenThisParent(final HashSet<ProjectVersionRef> projectrefs, final ProjectVersionRef parentKey)
+    private PeekedPom peek( final File pom )
     {
-        for (final ProjectVersionRef p : projectrefs)
+        logger.debug( "PEEK: {}", pom );
+
+        final PomPeek peek = new PomPeek( pom );
+        final PeekedPom result = new PeekedPom();
+
+        // Deprecated : we now default to scanning every XML file even templated
+        // ones but the if block provides a fallback if there are issues.
+        //
+        // Effectively either parse_pom_templates [default to true] ||
+        //      parse_pom_templates overridden to false so key MUST be NOT null
+        if ( !parsePomTemplates && peek.getKey() == null )
+        {
+            logger.debug( "Skipping {} as its a template file.", pom);
+            return result;
+        }
+        result.peek = peek;
+
+        try
         {
-            if ( p.versionlessEquals( parentKey ))
+            final File dir = pom.getParentFile();
+
+            final String relPath = peek.getParentRelativePath();
+            if ( relPath != null )
             {
-                return true;
+                logger.debug( "Found parent relativePath: {} in pom: {}", relPath, pom );
+
+                File parent = new File( dir, relPath );
+                if ( parent.isDirectory() )
+                {
+                    parent = new File( parent, "pom.xml" );
+                }
+                result.parent = parent.getCanonicalFile();
+            }
+
+            final Set<String> modules = peek.getModules();
+            if ( modules != null )
+            {
+                for ( final String module : modules )
+                {
+                    if ( logger.isDebugEnabled() )
+                    {
+                        logger.debug( "Found module: {} in pom: {}", module, pom );
+                    }
+
+                    File modPom = new File( dir, module );
+                    if ( modPom.isDirectory() )
+                    {
+                        modPom = new File( modPom, "pom.xml" );
+                    }
+                    result.modules.add( modPom );
+                    result.canonicalModules.add( modPom.getCanonicalFile() );
+                }
             }
         }
-        return false;
+        catch ( final IOException e )
+        {
+            throw new ManipulationUncheckedException( new ManipulationException( "Problem peeking at POMs.", e ) );
+        }
+        return result;
+    }
+
+    private static class PeekedPom
+    {
+        private PomPeek peek;
+
+        private File parent;
+
+        private final List<File> modules = new ArrayList<>();
+
+        // Used to find modules that are referenced more than once, possibly by different paths.
+        private final List<File> canonicalModules = new ArrayList<>();
+    }
+
+    /**
+     * A POM found while discovering the hierarchy, either by peeking at it or from a snapshot.
+     */
+    private static class DiscoveredPom
+    {
+        private final File pom;
+
+        private final ProjectVersionRef key;
+
+        private final ProjectVersionRef parentKey;
+
+        private boolean inheritanceRoot;
+
+        // The parent and module files the POM refers to and whether they existed, used to validate a snapshot.
+        private final Map<File, Boolean> references = new LinkedHashMap<>();
+
+        // The content of the POM if it has already been read.
+        private byte[] content;
+
+        // The hash of the content if it has already been checked against a snapshot.
+        private String hash;
+
+        DiscoveredPom( File pom, ProjectVersionRef key, ProjectVersionRef parentKey )
+        {
+            this.pom = pom;
+            this.key = key;
+            this.parentKey = parentKey;
+        }
+    }
+
+    private static class ParsedPom
+    {
+        private final byte[] content;
+
+        private final String hash;
+
+        private final LineSeparator lineSeparator;
+
+        private final Model model;
+
+        ParsedPom( byte[] content, String hash, LineSeparator lineSeparator, Model model )
+        {
+            this.content = content;
+            this.hash = hash;
+            this.lineSeparator = lineSeparator;
+            this.model = model;
+        }
     }
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.model.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A snapshot of a parsed reactor, saved between runs so that POMs whose content has not changed need not be parsed
+ * again. Each POM is recorded with the hash of its content and its raw model, along with the results of discovering
+ * it (its key, parent and the files it refers to). If every POM, and the existence of every file they refer to, is
+ * unchanged then the hierarchy need not be discovered again either.
+ * <p>
+ * The snapshot is stored with Java serialization in a file named after the top level POM. Only the classes a snapshot
+ * is made of may be read back from it, so a tampered file cannot create any other objects.
+ */
+class ReactorSnapshot
+                implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger( ReactorSnapshot.class );
+
+    static class Entry
+                    implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        final File pom;
+
+        final String hash;
+
+        // The group, artifact and version of the POM and its parent, as peeked at.
+        final String[] key;
+
+        final String[] parentKey;
+
+        final boolean inheritanceRoot;
+
+        // The parent and module files the POM refers to and whether they existed.
+        final Map<File, Boolean> references;
+
+        final Model model;
+
+        Entry( File pom, String hash, String[] key, String[] parentKey, boolean inheritanceRoot,
+               Map<File, Boolean> references, Model model )
+        {
+            this.pom = pom;
+            this.hash = hash;
+            this.key = key;
+            this.parentKey = parentKey;
+            this.inheritanceRoot = inheritanceRoot;
+            this.references = references;
+            this.model = model;
+        }
+    }
+
+    private final boolean parsePomTemplates;
+
+    private final List<Entry> entries;
+
+    private transient Map<File, Entry> index;
+
+    ReactorSnapshot( boolean parsePomTemplates, List<Entry> entries )
+    {
+        this.parsePomTemplates = parsePomTemplates;
+        this.entries = entries;
+    }
+
+    /**
+     * @param directory the directory the snapshots are stored in.
+     * @param topPom the canonical top level POM.
+     * @return the snapshot file for the top level POM.
+     */
+    static File getFile( File directory, File topPom )
+    {
+        return new File( directory, "reactor-" + DigestUtils.sha256Hex( topPom.getPath() ) + ".ser" );
+    }
+
+    static String hash( byte[] content )
+    {
+        return DigestUtils.sha256Hex( content );
+    }
+
+    /**
+     * @param file the snapshot file.
+     * @return the snapshot, or null if it does not exist or cannot be read.
+     */
+    static ReactorSnapshot load( File file )
+    {
+        if ( !file.exists() )
+        {
+            return null;
+        }
+        try ( ObjectInputStream in = new SnapshotInputStream(
+                        new BufferedInputStream( Files.newInputStream( file.toPath() ) ) ) )
+        {
+            final ReactorSnapshot snapshot = (ReactorSnapshot) in.readObject();
+            logger.debug( "Loaded snapshot of {} POMs from {}", snapshot.entries.size(), file );
+            return snapshot;
+        }
+        catch ( IOException | ClassNotFoundException | ClassCastException e )
+        {
+            logger.warn( "Ignoring unreadable reactor snapshot {}: {}", file, e.toString() );
+            return null;
+        }
+    }
+
+    /**
+     * Saves the snapshot, replacing any previous snapshot atomically. Failures are logged but otherwise ignored.
+     *
+     * @param file the snapshot file.
+     */
+    void save( File file )
+    {
+        try
+        {
+            final File parent = file.getAbsoluteFile().getParentFile();
+            Files.createDirectories( parent.toPath() );
+
+            final File temp = File.createTempFile( file.getName(), ".tmp", parent );
+            boolean moved = false;
+            try
+            {
+                try ( ObjectOutputStream out = new ObjectOutputStream(
+                                new BufferedOutputStream( Files.newOutputStream( temp.toPath() ) ) ) )
+                {
+                    out.writeObject( this );
+                }
+                Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE );
+                moved = true;
+            }
+            finally
+            {
+                if ( !moved )
+                {
+                    FileUtils.deleteQuietly( temp );
+                }
+            }
+            logger.debug( "Saved snapshot of {} POMs to {}", entries.size(), file );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to save reactor snapshot {}: {}", file, e.toString() );
+        }
+    }
+
+    List<Entry> getEntries()
+    {
+        return entries;
+    }
+
+    boolean isParsePomTemplates()
+    {
+        return parsePomTemplates;
+    }
+
+    /**
+     * Returns the recorded model of the POM if its content is unchanged. Each model is only returned once as it will
+     * be modified by the caller.
+     *
+     * @param pom the POM file.
+     * @param hash the hash of its current content.
+     * @return the model or null.
+     */
+    synchronized Model takeModel( File pom, String hash )
+    {
+        if ( index == null )
+        {
+            index = new HashMap<>();
+            entries.forEach( e -> index.put( e.pom, e ) );
+        }
+        final Entry entry = index.get( pom );
+
+        if ( entry != null && entry.hash.equals( hash ) )
+        {
+            index.remove( pom );
+            return entry.model;
+        }
+        return null;
+    }
+
+    /**
+     * Reads a snapshot, rejecting any class other than those of the snapshot itself, the Maven model and the JDK
+     * types they hold.
+     */
+    private static class SnapshotInputStream
+                    extends ObjectInputStream
+    {
+        private static final Set<String> ALLOWED = new HashSet<>(
+                        Arrays.asList( ReactorSnapshot.class.getName(), Entry.class.getName(), File.class.getName(),
+                                       Boolean.class.getName(), Integer.class.getName(), Number.class.getName(),
+                                       String.class.getName(), "java.util.ArrayList", "java.util.HashMap",
+                                       "java.util.Hashtable", "java.util.LinkedHashMap", "java.util.Properties" ) );
+
+        private static final String MODEL_PACKAGE = "org.apache.maven.model.";
+
+        private static final String XPP3DOM = "org.codehaus.plexus.util.xml.Xpp3Dom";
+
+        SnapshotInputStream( InputStream in ) throws IOException
+        {
+            super( in );
+        }
+
+        @Override
+        protected Class<?> resolveClass( ObjectStreamClass desc ) throws IOException, ClassNotFoundException
+        {
+            String name = desc.getName();
+
+            // Arrays are allowed if their elements are, e.g. [Ljava.lang.String;
+            final int dimensions = name.lastIndexOf( '[' ) + 1;
+            if ( dimensions > 0 )
+            {
+                name = name.length() == dimensions + 1 ? null : name.substring( dimensions + 1, name.length() - 1 );
+            }
+
+            if ( name != null && !ALLOWED.contains( name ) && !( name.startsWith( MODEL_PACKAGE )
+                            && name.indexOf( '.', MODEL_PACKAGE.length() ) < 0 ) && !name.equals( XPP3DOM )
+                            && !name.startsWith( XPP3DOM + '$' ) )
+            {
+                throw new InvalidClassException( desc.getName(), "Class is not allowed in a reactor snapshot" );
+            }
+            return super.resolveClass( desc );
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calculates the size of the next chunk to send to the endpoint using additive increase / multiplicative decrease
+ * towards a target latency per request. Each completed chunk provides an estimate of the time taken per GAV ; while
+ * requests complete within the target the chunk size grows by a fixed step (bounded by what the estimate says would
+ * fit in the target), and when they are slower, or fail with a timeout, it is cut.
+ */
+class AdaptiveChunkSizer
+{
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final int step;
+
+    private final long targetMillis;
+
+    private int chunkSize;
+
+    /**
+     * @param initialSize the size of the first chunk.
+     * @param minSize the lower bound of the chunk size.
+     * @param maxSize the upper bound of the chunk size.
+     * @param targetMillis the desired duration of each request.
+     */
+    AdaptiveChunkSizer( int initialSize, int minSize, int maxSize, long targetMillis )
+    {
+        this.minSize = Math.max( 1, minSize );
+        this.maxSize = Math.max( this.minSize, maxSize );
+        this.step = Math.max( 1, initialSize / 4 );
+        this.targetMillis = targetMillis;
+        this.chunkSize = bound( initialSize );
+    }
+
+    synchronized int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    /**
+     * Record a successful request.
+     *
+     * @param size the number of GAVs in the request.
+     * @param elapsedMillis the time the request took.
+     */
+    synchronized void onSuccess( int size, long elapsedMillis )
+    {
+        final int previous = chunkSize;
+        // Number of GAVs that would have been processed in the target time at the observed rate.
+        final long estimate = elapsedMillis == 0 ? Long.MAX_VALUE : ( size * targetMillis ) / elapsedMillis;
+
+        if ( elapsedMillis <= targetMillis )
+        {
+            chunkSize = bound( Math.min( (long) chunkSize + step, Math.max( estimate, chunkSize ) ) );
+        }
+        else
+        {
+            chunkSize = bound( Math.min( chunkSize / 2, estimate ) );
+        }
+
+        if ( previous != chunkSize )
+        {
+            logger.debug( "Request of {} GAVs took {} ms (target {} ms) ; adjusting chunk size from {} to {}", size,
+                          elapsedMillis, targetMillis, previous, chunkSize );
+        }
+    }
+
+    /**
+     * Record a request that failed with a recoverable error (i.e. a timeout or unavailable server).
+     */
+    synchronized void onFailure()
+    {
+        final int previous = chunkSize;
+
+        chunkSize = bound( chunkSize / Translator.CHUNK_SPLIT_COUNT );
+
+        logger.debug( "Request failed ; adjusting chunk size from {} to {}", previous, chunkSize );
+    }
+
+    private int bound( long size )
+    {
+        return (int) Math.max( minSize, Math.min( maxSize, size ) );
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import io.opentelemetry.context.Context;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the asynchronous lookups of {@link Translator}. Lookups are blocking and long running so should not occupy the
+ * common pool ; instead they run on daemon threads which are reused once idle. The tracing context of the caller is
+ * carried over to the lookup.
+ */
+final class AsyncLookups
+{
+    private static final ExecutorService POOL = Executors.newCachedThreadPool( r -> {
+        Thread t = new Thread( r, "rest-translator-async" );
+        t.setDaemon( true );
+        return t;
+    } );
+
+    static final Executor EXECUTOR = r -> POOL.execute( Context.current().wrap( r ) );
+
+    private AsyncLookups()
+    {
+    }
+}
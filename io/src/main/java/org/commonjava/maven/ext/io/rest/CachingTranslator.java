@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.json.RESTMetrics;
+import org.commonjava.maven.ext.io.rest.DefaultTranslator.Endpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.lang.StringUtils.isNotEmpty;
+import static org.commonjava.maven.ext.io.rest.TranslationStore.SEPARATOR;
+
+/**
+ * A {@link Translator} that stores the answers of another Translator in an on-disk cache so that repeated runs
+ * against the same endpoint only send GAVs that have not been looked up recently. The cache file is keyed by the
+ * endpoint URL, mode and brew pull flag; entries expire after a configurable time to live and the oldest entries
+ * are evicted once the configured maximum size is exceeded.
+ * <p>
+ * Negative answers (a GAV with no matching version) are cached as well so they are not resent until they expire.
+ * <p>
+ * The file is a {@link TranslationStore} with <code>version timestamp</code> columns.
+ */
+public class CachingTranslator
+                implements Translator
+{
+    public static final long DEFAULT_CACHE_TTL_SEC = TimeUnit.HOURS.toSeconds( 24 );
+
+    public static final int DEFAULT_CACHE_MAX_SIZE = 100000;
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final Translator delegate;
+
+    private final TranslationStore store;
+
+    private final long ttlMillis;
+
+    private final int maxSize;
+
+    private final Map<Endpoint, Map<ProjectVersionRef, Entry>> cache = new HashMap<>();
+
+    private boolean loaded;
+
+    /**
+     * @param delegate the Translator to call for cache misses.
+     * @param cacheDirectory the directory to store the cache files in.
+     * @param endpointUrl the URL of the endpoint; used to key the cache file.
+     * @param mode the lookup mode; used to key the cache file.
+     * @param brewPullActive the brew pull flag; used to key the cache file.
+     * @param ttlSeconds how long an entry is valid for; defaults to {@link #DEFAULT_CACHE_TTL_SEC}
+     * @param maxSize the maximum number of entries to retain; defaults to {@link #DEFAULT_CACHE_MAX_SIZE}
+     */
+    public CachingTranslator( Translator delegate, File cacheDirectory, String endpointUrl, String mode,
+                              Boolean brewPullActive, long ttlSeconds, int maxSize )
+    {
+        this.delegate = delegate;
+        this.store = new TranslationStore( new File( cacheDirectory, "rest-cache-" +
+                        DigestUtils.sha256Hex( endpointUrl + SEPARATOR + mode + SEPARATOR + brewPullActive ) + ".tsv" ) );
+        this.ttlMillis = TimeUnit.SECONDS.toMillis( ttlSeconds );
+        this.maxSize = maxSize;
+
+        for ( Endpoint e : Endpoint.values() )
+        {
+            cache.put( e, new HashMap<>() );
+        }
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> lookupVersions( List<ProjectVersionRef> projects ) throws RestException
+    {
+        return internalLookup( Endpoint.LOOKUP_GAVS, projects );
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> lookupProjectVersions( List<ProjectVersionRef> projects )
+                    throws RestException
+    {
+        return internalLookup( Endpoint.LOOKUP_LATEST, projects );
+    }
+
+    @Override
+    public RESTMetrics getMetrics()
+    {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public void close()
+    {
+        delegate.close();
+    }
+
+    private Map<ProjectVersionRef, String> internalLookup( Endpoint endpoint, List<ProjectVersionRef> projects )
+                    throws RestException
+    {
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        final List<ProjectVersionRef> misses = new ArrayList<>();
+
+        // The lock is not held while calling the delegate so that lookups of each endpoint may run concurrently.
+        synchronized ( this )
+        {
+            load();
+
+            final Map<ProjectVersionRef, Entry> entries = cache.get( endpoint );
+            final long now = System.currentTimeMillis();
+
+            for ( ProjectVersionRef p : projects )
+            {
+                Entry entry = entries.get( p.asProjectVersionRef() );
+
+                if ( entry == null || entry.isExpired( now ) )
+                {
+                    misses.add( p );
+                }
+                else if ( isNotEmpty( entry.version ) )
+                {
+                    result.put( p, entry.version );
+                }
+            }
+        }
+
+        logger.info( "REST cache {} found {} of {} GAVs", store.getFile(), projects.size() - misses.size(),
+                     projects.size() );
+
+        if ( !misses.isEmpty() )
+        {
+            final Map<ProjectVersionRef, String> remote = endpoint == Endpoint.LOOKUP_GAVS ?
+                            delegate.lookupVersions( misses ) :
+                            delegate.lookupProjectVersions( misses );
+
+            synchronized ( this )
+            {
+                final Map<ProjectVersionRef, Entry> entries = cache.get( endpoint );
+                final long now = System.currentTimeMillis();
+
+                for ( ProjectVersionRef p : misses )
+                {
+                    entries.put( p.asProjectVersionRef(), new Entry( remote.getOrDefault( p, "" ), now ) );
+                }
+                save( now );
+            }
+            result.putAll( remote );
+        }
+        return result;
+    }
+
+    private void load()
+    {
+        if ( loaded )
+        {
+            return;
+        }
+        loaded = true;
+
+        if ( !store.exists() )
+        {
+            return;
+        }
+
+        try
+        {
+            store.read( ( endpoint, gav, values ) -> {
+                if ( values.length == 2 )
+                {
+                    cache.get( endpoint ).put( gav, new Entry( values[0], Long.parseLong( values[1] ) ) );
+                }
+            } );
+            logger.debug( "Loaded REST cache from {}", store.getFile() );
+        }
+        catch ( IOException | RestException | RuntimeException e )
+        {
+            logger.warn( "Unable to read REST cache {} ; ignoring it: {}", store.getFile(), e.getMessage() );
+            cache.values().forEach( Map::clear );
+        }
+    }
+
+    private void save( long now )
+    {
+        final List<Map.Entry<ProjectVersionRef, Entry>> retained = new ArrayList<>();
+
+        for ( Map<ProjectVersionRef, Entry> entries : cache.values() )
+        {
+            entries.values().removeIf( e -> e.isExpired( now ) );
+            retained.addAll( entries.entrySet() );
+        }
+
+        if ( retained.size() > maxSize )
+        {
+            retained.sort( Comparator.comparingLong( e -> e.getValue().timestamp ) );
+
+            Iterator<Map.Entry<ProjectVersionRef, Entry>> i = retained.iterator();
+            for ( int evict = retained.size() - maxSize; evict > 0; evict-- )
+            {
+                Map.Entry<ProjectVersionRef, Entry> e = i.next();
+                cache.values().forEach( m -> m.remove( e.getKey(), e.getValue() ) );
+                i.remove();
+            }
+        }
+
+        try
+        {
+            int count = store.write( cache, e -> new String[] { e.version, String.valueOf( e.timestamp ) } );
+            logger.debug( "Wrote {} entries to REST cache {}", count, store.getFile() );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to write REST cache {}: {}", store.getFile(), e.getMessage() );
+        }
+    }
+
+    private class Entry
+    {
+        private final String version;
+
+        private final long timestamp;
+
+        Entry( String version, long timestamp )
+        {
+            this.version = version;
+            this.timestamp = timestamp;
+        }
+
+        boolean isExpired( long now )
+        {
+            return now - timestamp > ttlMillis;
+        }
+    }
+}
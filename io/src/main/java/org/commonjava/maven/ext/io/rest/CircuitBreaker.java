@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks consecutive failures of an endpoint. Once the threshold is reached the breaker opens and requests are
+ * rejected without being sent until the open duration has passed ; the next request is then allowed through as a
+ * trial and its outcome either closes the breaker again or reopens it. Other requests are rejected until the trial
+ * has resolved.
+ */
+public class CircuitBreaker
+{
+    enum State
+    {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final String endpoint;
+
+    private final int threshold;
+
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+
+    private int failures;
+
+    private long openedAt;
+
+    private boolean trialInFlight;
+
+    /**
+     * @param endpoint the endpoint this breaker guards ; used for logging.
+     * @param threshold the number of consecutive failures that will open the breaker; if zero it never opens.
+     * @param openMillis how long the breaker stays open before allowing a trial request.
+     */
+    CircuitBreaker( String endpoint, int threshold, long openMillis )
+    {
+        this.endpoint = endpoint;
+        this.threshold = threshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * @return true if a request may be sent to the endpoint.
+     */
+    public synchronized boolean allowRequest()
+    {
+        if ( state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis )
+        {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if ( state == State.HALF_OPEN )
+        {
+            if ( trialInFlight )
+            {
+                return false;
+            }
+            logger.info( "Circuit breaker for {} allowing trial request", endpoint );
+            trialInFlight = true;
+        }
+        return state != State.OPEN;
+    }
+
+    /**
+     * Records the outcome of a request. Only connection errors and server errors show that the endpoint is unhealthy,
+     * other than a gateway timeout: the Dependency Analyser returns that when a chunk is too large, which is handled
+     * by splitting the chunk and retrying.
+     *
+     * @param status the status of the response.
+     * @param connectionFailed whether the request failed to connect or receive a response.
+     */
+    public void record( int status, boolean connectionFailed )
+    {
+        if ( status == HttpStatus.SC_OK )
+        {
+            recordSuccess();
+        }
+        else if ( connectionFailed || ( status >= HttpStatus.SC_INTERNAL_SERVER_ERROR
+                        && status != HttpStatus.SC_GATEWAY_TIMEOUT ) )
+        {
+            recordFailure();
+        }
+        else
+        {
+            recordInconclusive();
+        }
+    }
+
+    public synchronized void recordSuccess()
+    {
+        if ( state != State.CLOSED )
+        {
+            logger.info( "Circuit breaker for {} closed", endpoint );
+        }
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure()
+    {
+        failures++;
+
+        if ( threshold > 0 && ( state == State.HALF_OPEN || failures >= threshold ) && state != State.OPEN )
+        {
+            logger.warn( "Circuit breaker for {} opened after {} consecutive failures ; rejecting requests for {} ms",
+                         endpoint, failures, openMillis );
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Records a response that says nothing about the health of the endpoint ; if it was the trial request the next
+     * request becomes the trial.
+     */
+    public synchronized void recordInconclusive()
+    {
+        trialInFlight = false;
+    }
+
+    synchronized State getState()
+    {
+        return state;
+    }
+}
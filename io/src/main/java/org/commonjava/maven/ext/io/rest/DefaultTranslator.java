@@ -16,26 +16,32 @@
 package org.commonjava.maven.ext.io.rest;
 
 import com.redhat.resilience.otel.OTelCLIHelper;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanContext;
-import kong.unirest.GenericType;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import kong.unirest.HttpResponse;
 import kong.unirest.Unirest;
 import kong.unirest.UnirestException;
+import kong.unirest.UnirestInstance;
 import lombok.Getter;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.http.HttpStatus;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
-import org.commonjava.maven.ext.common.json.DependencyAnalyserResult;
-import org.commonjava.maven.ext.common.json.ErrorMessage;
-import org.commonjava.maven.ext.common.util.GAVUtils;
+import org.commonjava.maven.ext.common.json.RESTMetrics;
 import org.commonjava.maven.ext.common.util.JSONUtils.InternalObjectMapper;
 import org.commonjava.maven.ext.common.util.ListUtils;
-import org.jboss.da.lookup.model.MavenLatestRequest;
-import org.jboss.da.lookup.model.MavenLookupRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -44,8 +50,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 import static org.apache.http.HttpStatus.SC_OK;
@@ -58,10 +72,6 @@ import static org.apache.http.HttpStatus.SC_OK;
 public class DefaultTranslator
     implements Translator
 {
-    private static final GenericType<List<DependencyAnalyserResult>> lookupType = new GenericType<List<DependencyAnalyserResult>>()
-    {
-    };
-
     public enum Endpoint
     {
         LOOKUP_GAVS ("lookup/maven"),
@@ -82,6 +92,10 @@ public class DefaultTranslator
         }
     }
 
+    private static final int ADAPTIVE_MAX_CHUNK_SIZE = 1024;
+
+    private static final Map<String, String> GZIP_HEADERS = Collections.singletonMap( "Content-Encoding", "gzip" );
+
     private final Logger logger = LoggerFactory.getLogger( getClass() );
 
     private final String endpointUrl;
@@ -104,15 +118,38 @@ public class DefaultTranslator
 
     private final int restSocketTimeout;
 
-    static
+    private final int restConcurrency;
+
+    private final int restTargetLatency;
+
+    private final RetryPolicy retryPolicy;
+
+    private final boolean restCompressRequests;
+
+    private UnirestInstance client;
+
+    private final Tracer tracer;
+
+    private final TranslatorMetrics metrics = new TranslatorMetrics();
+
+    /**
+     * @param endpointUrl is the URL to talk to.
+     * @param restMaxSize initial (maximum) size of the rest call; if zero will send everything.
+     * @param restMinSize minimum size for the call
+     * @param brewPullActive flag saying if brew pull should be used for version retrieval
+     * @param mode lookup mode, either PERSISTENT, TEMPORARY, SERVICE or SERVICE-TEMPORARY
+     * @param restHeaders the headers to pass to the endpoint
+     * @param restConnectionTimeout the timeout for the REST request; defaults to {@link Translator#DEFAULT_CONNECTION_TIMEOUT_SEC}
+     * @param restSocketTimeout the timeout for the REST socket calls; defaults to {@link Translator#DEFAULT_SOCKET_TIMEOUT_SEC}
+     * @param restRetryDuration the retry duration configuration; ; defaults to {@link Translator#RETRY_DURATION_SEC}
+     */
+    public DefaultTranslator( String endpointUrl, int restMaxSize, int restMinSize, Boolean brewPullActive, String mode,
+                              Map<String, String> restHeaders, int restConnectionTimeout, int restSocketTimeout,
+                              int restRetryDuration )
     {
-        // According to https://kong.github.io/unirest-java/#configuration the default connection timeout is 10000
-        // and the default socketTimeout is 60000.
-        // We have increased the first to 30 seconds and the second to 10 minutes.
-        Unirest.config()
-               .socketTimeout( 600000 )
-               .connectTimeout( 30000 )
-               .setObjectMapper( new InternalObjectMapper( new com.fasterxml.jackson.databind.ObjectMapper() ) );
+        this( endpointUrl, restMaxSize, restMinSize, brewPullActive, mode, restHeaders, restConnectionTimeout,
+              restSocketTimeout, restRetryDuration, DEFAULT_CONCURRENCY, DEFAULT_TARGET_LATENCY_SEC,
+              new RetryPolicy(), false );
     }
 
     /**
@@ -125,10 +162,17 @@ public class DefaultTranslator
      * @param restConnectionTimeout the timeout for the REST request; defaults to {@link Translator#DEFAULT_CONNECTION_TIMEOUT_SEC}
      * @param restSocketTimeout the timeout for the REST socket calls; defaults to {@link Translator#DEFAULT_SOCKET_TIMEOUT_SEC}
      * @param restRetryDuration the retry duration configuration; ; defaults to {@link Translator#RETRY_DURATION_SEC}
+     * @param restConcurrency the maximum number of chunks sent to the endpoint at once; defaults to {@link Translator#DEFAULT_CONCURRENCY}
+     * @param restTargetLatency the desired duration of each request, used to adapt the chunk size; if zero chunk sizes
+     *                          are fixed. Defaults to {@link Translator#DEFAULT_TARGET_LATENCY_SEC}
+     * @param retryPolicy the backoff and circuit breaker configuration.
+     * @param restCompressRequests whether to gzip the request bodies; the endpoint must accept
+     *                             {@code Content-Encoding: gzip}.
      */
     public DefaultTranslator( String endpointUrl, int restMaxSize, int restMinSize, Boolean brewPullActive, String mode,
                               Map<String, String> restHeaders, int restConnectionTimeout, int restSocketTimeout,
-                              int restRetryDuration )
+                              int restRetryDuration, int restConcurrency, int restTargetLatency,
+                              RetryPolicy retryPolicy, boolean restCompressRequests )
     {
         this.brewPullActive = brewPullActive;
         this.mode = mode;
@@ -139,30 +183,99 @@ public class DefaultTranslator
         this.restConnectionTimeout = restConnectionTimeout;
         this.restSocketTimeout = restSocketTimeout;
         this.retryDuration = restRetryDuration;
+        this.restConcurrency = Math.max( 1, restConcurrency );
+        this.restTargetLatency = restTargetLatency;
+        this.retryPolicy = retryPolicy;
+        this.restCompressRequests = restCompressRequests;
 
         if ( OTelCLIHelper.otelEnabled() )
         {
+            // Only access the global instance once OpenTelemetry has been started, as doing so earlier would
+            // prevent it from being registered.
+            this.tracer = GlobalOpenTelemetry.getTracer( "pom-manipulation-ext" );
+
             SpanContext current = Span.current().getSpanContext();
             if ( current.isValid() )
             {
-                otelHeaders.put( "trace-id", current.getTraceId() );
-                otelHeaders.put( "span-id", current.getSpanId() );
-                otelHeaders.put( "tracestate", current.getTraceState()
-                                                      .asMap()
-                                                      .entrySet()
-                                                      .stream()
-                                                      .map( Objects::toString )
-                                                      .collect( Collectors.joining( "," ) ) );
-                // Code from pnc-common to avoid transitively including that and pnc-api in the classpath
-                otelHeaders.put( "traceparent",
-                                 String.format( "%s-%s-%s-%s", "00", current.getTraceId(), current.getSpanId(),
-                                                current.getTraceFlags().asHex() ) );
+                otelHeaders.putAll( traceHeaders( current ) );
             }
             else
             {
                 logger.warn( "Invalid span context {}", current );
             }
         }
+        else
+        {
+            this.tracer = OpenTelemetry.noop().getTracer( "pom-manipulation-ext" );
+        }
+    }
+
+    private static Map<String, String> traceHeaders( SpanContext context )
+    {
+        final Map<String, String> headers = new HashMap<>();
+
+        headers.put( "trace-id", context.getTraceId() );
+        headers.put( "span-id", context.getSpanId() );
+        headers.put( "tracestate", context.getTraceState()
+                                          .asMap()
+                                          .entrySet()
+                                          .stream()
+                                          .map( Objects::toString )
+                                          .collect( Collectors.joining( "," ) ) );
+        // Code from pnc-common to avoid transitively including that and pnc-api in the classpath
+        headers.put( "traceparent",
+                     String.format( "%s-%s-%s-%s", "00", context.getTraceId(), context.getSpanId(),
+                                    context.getTraceFlags().asHex() ) );
+        return headers;
+    }
+
+    /**
+     * Shuts down the HTTP client, if one has been created, releasing its connections. A later lookup creates a new
+     * client.
+     */
+    @Override
+    public synchronized void close()
+    {
+        if ( client != null )
+        {
+            client.shutDown();
+            client = null;
+        }
+    }
+
+    /**
+     * @return the HTTP client, created on the first request so that a translator which is never used does not
+     * hold a connection pool.
+     */
+    private synchronized UnirestInstance getClient()
+    {
+        if ( client == null )
+        {
+            client = createClient();
+        }
+        return client;
+    }
+
+    /**
+     * Creates the HTTP client used by this translator rather than sharing the global Unirest configuration. The
+     * connection pool is sized so that both lookup endpoints may be called at once with {@link #restConcurrency}
+     * requests each without waiting for a connection, and connections are kept alive between chunks. Responses are
+     * requested with {@code Accept-Encoding: gzip}.
+     */
+    private UnirestInstance createClient()
+    {
+        final int connections = restConcurrency * Endpoint.values().length;
+        final UnirestInstance instance = Unirest.spawnInstance();
+
+        instance.config()
+                .socketTimeout( (int) TimeUnit.SECONDS.toMillis( restSocketTimeout ) )
+                .connectTimeout( (int) TimeUnit.SECONDS.toMillis( restConnectionTimeout ) )
+                .concurrency( connections, connections )
+                .requestCompression( true )
+                .automaticRetries( false )
+                .setObjectMapper( new InternalObjectMapper( new com.fasterxml.jackson.databind.ObjectMapper() ) );
+
+        return instance;
     }
 
     /**
@@ -220,22 +333,41 @@ public class DefaultTranslator
         return internalLookup( Endpoint.LOOKUP_LATEST, p );
     }
 
-    private void partition( Endpoint endpointType, List<ProjectVersionRef> projects, Queue<Task> queue ) {
+    /**
+     * @return a summary of the requests made by all lookups so far.
+     */
+    @Override
+    public RESTMetrics getMetrics()
+    {
+        return metrics.toReport();
+    }
+
+    private TaskQueue partition( Endpoint endpointType, List<ProjectVersionRef> projects ) {
+        final TaskQueue queue;
+
         if ( initialRestMaxSize != 0 )
         {
-            if (initialRestMaxSize == -1)
+            if ( restTargetLatency > 0 )
             {
+                queue = adaptivePartition( endpointType, projects );
+            }
+            else if (initialRestMaxSize == -1)
+            {
+                queue = new TaskQueue();
                 autoPartition(endpointType, projects, queue);
             }
             else
             {
+                queue = new TaskQueue();
                 userDefinedPartition(endpointType, projects, queue);
             }
         }
         else
         {
+            queue = new TaskQueue();
             noOpPartition(endpointType, projects, queue);
         }
+        return queue;
     }
 
     private void noOpPartition( Endpoint endpointType, List<ProjectVersionRef> projects, Queue<Task> queue ) {
@@ -259,25 +391,10 @@ public class DefaultTranslator
     }
 
     private void autoPartition( Endpoint endpointType, List<ProjectVersionRef> projects, Queue<Task> queue ) {
-        List<List<ProjectVersionRef>> partition;
+        final int chunkSize = autoChunkSize( projects.size() );
 
-        if (projects.size() < 600)
-        {
-            logger.info("Using auto partition strategy: {} projects divided in chunks with {} each", projects.size(), 128);
-            partition = ListUtils.partition( projects, 128 );
-        }
-        else {
-            if (projects.size() > 600 && projects.size() < 1200)
-            {
-                logger.info("Using auto partition strategy: {} projects divided in chunks with {} each", projects.size(), 64);
-                partition = ListUtils.partition( projects, 64 );
-            }
-            else
-            {
-                logger.info("Using auto partition strategy: {} projects divided in chunks with {} each", projects.size(), 32);
-                partition = ListUtils.partition( projects, 32 );
-            }
-        }
+        logger.info("Using auto partition strategy: {} projects divided in chunks with {} each", projects.size(), chunkSize);
+        final List<List<ProjectVersionRef>> partition = ListUtils.partition( projects, chunkSize );
 
         for ( List<ProjectVersionRef> p : partition )
         {
@@ -285,6 +402,34 @@ public class DefaultTranslator
         }
     }
 
+    private TaskQueue adaptivePartition( Endpoint endpointType, List<ProjectVersionRef> projects ) {
+        final int initialSize = initialRestMaxSize == -1 ? autoChunkSize( projects.size() ) : initialRestMaxSize;
+        final int maxSize = initialRestMaxSize == -1 ? ADAPTIVE_MAX_CHUNK_SIZE : initialRestMaxSize;
+
+        logger.info( "Using adaptive partition strategy: {} projects divided in chunks starting with {} each and a target latency of {} seconds",
+                     projects.size(), initialSize, restTargetLatency );
+
+        return new AdaptiveTaskQueue( endpointType, projects,
+                                      new AdaptiveChunkSizer( initialSize, initialRestMinSize, maxSize,
+                                                              TimeUnit.SECONDS.toMillis( restTargetLatency ) ) );
+    }
+
+    private int autoChunkSize( int projectCount )
+    {
+        if (projectCount < 600)
+        {
+            return 128;
+        }
+        else if (projectCount > 600 && projectCount < 1200)
+        {
+            return 64;
+        }
+        else
+        {
+            return 32;
+        }
+    }
+
     private Map<ProjectVersionRef, String> internalLookup( Endpoint endpointType, List<ProjectVersionRef> p ) throws RestException
     {
         final List<ProjectVersionRef> projects = p.stream().distinct().collect( Collectors.toList() );
@@ -294,84 +439,170 @@ public class DefaultTranslator
         }
         logger.info( "Calling REST client... (with {} GAVs)", projects.size() );
 
-        final Queue<Task> queue = new ArrayDeque<>();
         final Map<ProjectVersionRef, String> result = new HashMap<>();
         final long start = System.nanoTime();
+        final Span span = tracer.spanBuilder( "DA " + endpointType )
+                                .setAttribute( "pme.rest.gav_count", projects.size() )
+                                .startSpan();
 
         boolean finishedSuccessfully = false;
 
-        try
+        try ( Scope ignored = span.makeCurrent() )
         {
 
-            partition( endpointType, projects, queue );
+            final TaskQueue queue = partition( endpointType, projects );
 
-            while ( !queue.isEmpty() )
+            if ( restConcurrency > 1 )
             {
-                Task task = queue.remove();
-                task.executeTranslate();
-                if ( task.isSuccess() )
-                {
-                    result.putAll( task.getResult() );
-                }
-                else
+                executeConcurrently( endpointType, queue, result );
+            }
+            else
+            {
+                while ( !queue.isEmpty() )
                 {
-                    if ( task.canSplit() && isRecoverable( task.getStatus() ) )
-                    {
-                        if ( task.getStatus() == HttpStatus.SC_SERVICE_UNAVAILABLE )
-                        {
-                            logger.info( "The DA server is unavailable. Waiting {} before splitting the tasks and retrying",
-                                         retryDuration );
-
-                            waitBeforeRetry( retryDuration );
-                        }
-
-                        List<Task> tasks = task.split(endpointType);
-
-                        logger.warn( "Failed to translate versions for task @{} due to {}, splitting and retrying. Chunk size was: {} and new chunk size {} in {} segments.",
-                                     task.hashCode(), task.getStatus(), task.getChunkSize(), tasks.get( 0 ).getChunkSize(),
-                                     tasks.size() );
-                        queue.addAll( tasks );
-                    }
-                    else
-                    {
-                        if ( task.getStatus() < 0 )
-                        {
-                            logger.debug( "Caught exception calling server with message {}", task.getErrorMessage() );
-                        }
-                        else
-                        {
-                            logger.debug( "Did not get status {} but received {}", SC_OK, task.getStatus() );
-                        }
-
-                        throw new RestException( "Received response status {} with message: {}",
-                                                 task.getStatus(), task.getErrorMessage() );
-                    }
+                    Task task = queue.remove();
+                    task.executeTranslate();
+                    queue.completed( task );
+                    queue.addAll( processTask( endpointType, task, result ) );
                 }
             }
             finishedSuccessfully = true;
         }
         finally
         {
+            if ( !finishedSuccessfully )
+            {
+                span.setStatus( StatusCode.ERROR );
+            }
+            span.end();
             printFinishTime( logger, start, finishedSuccessfully);
         }
 
         return result;
     }
 
-    private boolean isRecoverable(int httpErrorCode)
+    /**
+     * Sends the queued tasks through a bounded pool of {@link #restConcurrency} workers. Results are merged, and
+     * failed tasks split and resubmitted, on the calling thread as each task completes.
+     */
+    private void executeConcurrently( Endpoint endpointType, TaskQueue queue, Map<ProjectVersionRef, String> result )
+                    throws RestException
     {
-        return httpErrorCode == HttpStatus.SC_GATEWAY_TIMEOUT || httpErrorCode == HttpStatus.SC_SERVICE_UNAVAILABLE;
-    }
+        final ExecutorService executor = Executors.newFixedThreadPool( restConcurrency, new TranslatorThreadFactory() );
+        final CompletionService<Task> completionService = new ExecutorCompletionService<>( executor );
+        int pending = 0;
+
+        logger.debug( "Dispatching tasks with concurrency of {}", restConcurrency );
 
-    private void waitBeforeRetry(int seconds) {
         try
         {
-            Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+            do
+            {
+                // Only hand the pool as many tasks as it can run so that later chunks are sized, and split tasks
+                // ordered, using the results of those that have already completed.
+                while ( pending < restConcurrency && !queue.isEmpty() )
+                {
+                    Task task = queue.remove();
+                    // Workers inherit the tracing context so each request span is a child of the lookup span.
+                    completionService.submit( Context.current().wrap( (Runnable) task::executeTranslate ), task );
+                    pending++;
+                }
+                if ( pending > 0 )
+                {
+                    Task task = completionService.take().get();
+                    pending--;
+
+                    queue.completed( task );
+                    queue.addAll( processTask( endpointType, task, result ) );
+                }
+            }
+            while ( pending > 0 || !queue.isEmpty() );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RestException( "Interrupted while waiting for REST response", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new RestException( "Caught exception calling server", e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Handles a completed task. On success its results are merged into result; on a recoverable failure it is split
+     * (after waiting, if the server was unavailable) and the new tasks returned to be sent.
+     *
+     * @return a list of tasks to send, which is empty if the task succeeded.
+     * @throws RestException if the task failed and cannot be retried.
+     */
+    private List<Task> processTask( Endpoint endpointType, Task task, Map<ProjectVersionRef, String> result )
+                    throws RestException
+    {
+        if ( task.isSuccess() )
+        {
+            result.putAll( task.getResult() );
+            return Collections.emptyList();
+        }
+        else if ( task.canSplit() && isRecoverable( task.getStatus() ) )
+        {
+            List<Task> tasks = task.split(endpointType);
+
+            metrics.recordSplit();
+
+            if ( task.getStatus() == HttpStatus.SC_SERVICE_UNAVAILABLE )
+            {
+                // The wait happens before the first of the split tasks is sent, so in the concurrent case it is
+                // spent by the workers rather than blocking the handling of other results.
+                final long delay = retryPolicy.nextDelay( TimeUnit.SECONDS.toMillis( retryDuration ),
+                                                          task.getDelay() );
+                final long notBefore = System.currentTimeMillis() + delay;
+
+                logger.info( "The DA server is unavailable. Waiting {} ms before retrying the split tasks", delay );
+
+                tasks.forEach( t -> t.delayUntil( notBefore, delay ) );
+                metrics.recordRetries( tasks.size() );
+            }
+
+            logger.warn( "Failed to translate versions for task @{} due to {}, splitting and retrying. Chunk size was: {} and new chunk size {} in {} segments.",
+                         task.hashCode(), task.getStatus(), task.getChunkSize(), tasks.get( 0 ).getChunkSize(),
+                         tasks.size() );
+            return tasks;
+        }
+        else
+        {
+            if ( task.getStatus() < 0 )
+            {
+                logger.debug( "Caught exception calling server with message {}", task.getErrorMessage() );
+            }
+            else
+            {
+                logger.debug( "Did not get status {} but received {}", SC_OK, task.getStatus() );
+            }
+
+            throw new RestException( "Received response status {} with message: {}",
+                                     task.getStatus(), task.getErrorMessage() );
         }
-        catch (InterruptedException e)
+    }
+
+    private static byte[] gzip( byte[] content ) throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream( content.length / 4 );
+
+        try ( GZIPOutputStream gzip = new GZIPOutputStream( out ) )
         {
-            logger.error( "Caught exception while waiting", e );
+            gzip.write( content );
         }
+        return out.toByteArray();
+    }
+
+    private boolean isRecoverable(int httpErrorCode)
+    {
+        return httpErrorCode == HttpStatus.SC_GATEWAY_TIMEOUT || httpErrorCode == HttpStatus.SC_SERVICE_UNAVAILABLE;
     }
 
     private class Task
@@ -390,7 +621,15 @@ public class DefaultTranslator
 
         private String errorString;
 
+        private long elapsedNanos;
+
+        private long notBefore;
+
+        private long delay;
 
+        private long requestBytes;
+
+        private long responseBytes;
 
         Task( List<ProjectVersionRef> chunk, String endpointUrl, Endpoint endpointType )
         {
@@ -401,96 +640,186 @@ public class DefaultTranslator
 
         void executeTranslate()
         {
-            HttpResponse<List<DependencyAnalyserResult>> r;
+            HttpResponse<Integer> r;
+
+            waitBeforeRetry();
+
+            final CircuitBreaker circuitBreaker = retryPolicy.getCircuitBreaker( endpointUrl + endpointType );
+            if ( !circuitBreaker.allowRequest() )
+            {
+                exception = new RestException( "Circuit breaker is open for {} after repeated failures",
+                                               endpointUrl + endpointType );
+                status = -1;
+                return;
+            }
+
+            boolean connectionFailed = false;
+            final Span span = tracer.spanBuilder( "DA request " + endpointType )
+                                    .setAttribute( "pme.rest.gav_count", chunk.size() )
+                                    .setAttribute( "pme.rest.retry_delay_ms", delay )
+                                    .startSpan();
+            final long start = System.nanoTime();
 
-            try
+            try ( Scope ignored = span.makeCurrent() )
             {
                 final boolean lookup = (endpointType == Endpoint.LOOKUP_GAVS);
-                Object request = lookup ?
-                                ( MavenLookupRequest
-                                                .builder()
-                                                .mode( mode )
-                                                .brewPullActive( brewPullActive )
-                                                .artifacts( GAVUtils.generateGAVs( chunk ) )
-                                                .build() )
-                                :
-                                ( MavenLatestRequest
-                                                .builder()
-                                                .mode( mode )
-                                                .artifacts( GAVUtils.generateGAVs( chunk ) )
-                                                .build() );
-
-                r = Unirest.post( endpointUrl + endpointType )
-                           .header( "accept", "application/json" )
-                           .header( "Content-Type", "application/json" )
-                           .headers( restHeaders )
-                           .headers( otelHeaders )
-                           .connectTimeout(restConnectionTimeout * 1000)
-                           .socketTimeout(restSocketTimeout * 1000)
-                           .body( request )
-                           .asObject( lookupType  )
-                           .ifSuccess( successResponse -> result = successResponse.getBody()
-                                                                                  .stream()
-                                                                                  .filter( f -> lookup ? isNotBlank( f.getBestMatchVersion() ) : isNotBlank( f.getLatestVersion() ) )
-                                                                                  .collect(
-                                                                                                  Collectors.toMap(
-                                                                                                                  DependencyAnalyserResult::getProjectVersionRef,
-                                                                                                  lookup ? DependencyAnalyserResult::getBestMatchVersion : DependencyAnalyserResult::getLatestVersion,
-                                                                                                  // If there is a duplicate key, use the original.
-                                                                                                  (o, n) -> {
-                                                                                                      logger.warn( "Located duplicate key {}", o);
-                                                                                                      return o;
-                                                                                                  } )
-                                                                                  )
-                           )
-                           .ifFailure( failedResponse -> {
-                               if ( !failedResponse.getParsingError().isPresent() )
-                               {
-                                   logger.debug( "Parsing error but no message. Status text {}", failedResponse.getStatusText() );
-                                   throw new ManipulationUncheckedException( failedResponse.getStatusText() );
-                               }
-                               else
-                               {
-                                   String originalBody = failedResponse.getParsingError().get().getOriginalBody();
-
-                                   if ( originalBody.isEmpty() )
-                                   {
-                                       this.errorString = "No content to read.";
-                                   }
-                                   else if ( originalBody.startsWith( "<" ) )
-                                   {
-                                       // Read an HTML string.
-                                       String stripped = originalBody.replaceAll( "<.*?>", "" ).replaceAll( "\n", " " ).trim();
-                                       logger.debug( "Read HTML string '{}' rather than a JSON stream; stripping message to '{}'",
-                                                     originalBody, stripped );
-                                       this.errorString = stripped;
-                                   }
-                                   else if ( originalBody.startsWith( "{\"" ) )
-                                   {
-                                       this.errorString = failedResponse.mapError( ErrorMessage.class ).toString();
-
-                                       logger.debug( "Read message string {}, processed to {}", originalBody, errorString );
-                                   }
-                                   else if ( originalBody.startsWith( "javax.validation.ValidationException: " ) )
-                                   {
-                                       this.errorString = originalBody;
-                                   }
-                                   else
-                                   {
-                                       logger.error( "HTTP comm failure: {}", failedResponse.getParsingError().get().getMessage() );
-                                       throw new ManipulationUncheckedException( "Problem in HTTP communication with status code {} and message {}",
-                                                                                 failedResponse.getStatus(), failedResponse.getStatusText() );
-                                   }
-                               }
-                           } );
-
-                status = r.getStatus();
+                final byte[] request = DependencyAnalyserCodec.writeRequest( mode, lookup ? brewPullActive : null,
+                                                                             chunk );
+                final byte[] body = restCompressRequests ? gzip( request ) : request;
+                requestBytes = body.length;
+
+                r = getClient().post( endpointUrl + endpointType )
+                          .header( "accept", "application/json" )
+                          .header( "Content-Type", "application/json" )
+                          .headers( restCompressRequests ? GZIP_HEADERS : Collections.emptyMap() )
+                          .headers( restHeaders )
+                          .headers( span.getSpanContext().isValid() ? traceHeaders( span.getSpanContext() ) : otelHeaders )
+                          .connectTimeout(restConnectionTimeout * 1000)
+                          .socketTimeout(restSocketTimeout * 1000)
+                          .body( body )
+                          .asObject( raw -> {
+                              if ( raw.getStatus() != SC_OK )
+                              {
+                                  final String content = raw.getContentAsString();
+                                  responseBytes = content == null ? 0 : content.getBytes( StandardCharsets.UTF_8 ).length;
+                                  return handleFailure( raw.getStatus(), raw.getStatusText(), content );
+                              }
+                              final Map<ProjectVersionRef, String> response = new HashMap<>();
+                              final CountingInputStream content = new CountingInputStream( raw.getContent() );
+                              try
+                              {
+                                  DependencyAnalyserCodec.readResponse( content, lookup, response );
+                              }
+                              catch ( IOException e )
+                              {
+                                  logger.error( "HTTP comm failure: {}", e.getMessage() );
+                                  exception = new ManipulationUncheckedException( "Problem in HTTP communication with status code {} and message {}",
+                                                                                  raw.getStatus(), e.getMessage() );
+                                  return -1;
+                              }
+                              finally
+                              {
+                                  responseBytes = content.getByteCount();
+                              }
+                              result = response;
+                              return raw.getStatus();
+                          } );
+
+                if ( r.getParsingError().isPresent() )
+                {
+                    exception = r.getParsingError().get();
+                }
+                status = r.getBody() == null ? -1 : r.getBody();
             }
-            catch ( ManipulationUncheckedException | UnirestException e )
+            catch ( IOException | ManipulationUncheckedException | UnirestException e )
             {
                 exception = e;
                 this.status = -1;
+                connectionFailed = e instanceof UnirestException;
             }
+            finally
+            {
+                elapsedNanos = System.nanoTime() - start;
+
+                span.setAttribute( "http.status_code", status );
+                span.setAttribute( "pme.rest.request_bytes", requestBytes );
+                span.setAttribute( "pme.rest.response_bytes", responseBytes );
+                if ( status != SC_OK )
+                {
+                    span.setStatus( StatusCode.ERROR, getErrorMessage() );
+                }
+                span.end();
+            }
+
+            metrics.record( chunk.size(), status, getElapsedMillis(), requestBytes, responseBytes );
+
+            circuitBreaker.record( status, connectionFailed );
+        }
+
+        private void waitBeforeRetry()
+        {
+            final long wait = notBefore - System.currentTimeMillis();
+
+            if ( wait > 0 )
+            {
+                try
+                {
+                    Thread.sleep( wait );
+                }
+                catch ( InterruptedException e )
+                {
+                    logger.error( "Caught exception while waiting", e );
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * @param notBefore the earliest time (in milliseconds) this task may be sent.
+         * @param delay the wait that was chosen ; used to calculate the next wait should this task also fail.
+         */
+        void delayUntil( long notBefore, long delay )
+        {
+            this.notBefore = notBefore;
+            this.delay = delay;
+        }
+
+        long getDelay()
+        {
+            return delay;
+        }
+
+        /**
+         * Records the error from a failed response.
+         *
+         * @return the status of the task ; -1 if the response could not be understood.
+         */
+        private int handleFailure( int status, String statusText, String originalBody )
+        {
+            if ( originalBody == null || originalBody.isEmpty() )
+            {
+                this.errorString = "No content to read.";
+            }
+            else if ( originalBody.startsWith( "<" ) )
+            {
+                // Read an HTML string.
+                String stripped = originalBody.replaceAll( "<.*?>", "" ).replaceAll( "\n", " " ).trim();
+                logger.debug( "Read HTML string '{}' rather than a JSON stream; stripping message to '{}'",
+                              originalBody, stripped );
+                this.errorString = stripped;
+            }
+            else if ( originalBody.startsWith( "{\"" ) )
+            {
+                try
+                {
+                    this.errorString = DependencyAnalyserCodec.readError( originalBody ).toString();
+                }
+                catch ( IOException e )
+                {
+                    logger.debug( "Unable to parse error message {}", e.getMessage() );
+                    this.errorString = originalBody;
+                }
+
+                logger.debug( "Read message string {}, processed to {}", originalBody, errorString );
+            }
+            else if ( originalBody.startsWith( "javax.validation.ValidationException: " ) )
+            {
+                this.errorString = originalBody;
+            }
+            else if ( originalBody.startsWith( "[" ) )
+            {
+                logger.debug( "Parsing error but no message. Status text {}", statusText );
+                exception = new ManipulationUncheckedException( statusText );
+                return -1;
+            }
+            else
+            {
+                logger.error( "HTTP comm failure: {}", originalBody );
+                exception = new ManipulationUncheckedException( "Problem in HTTP communication with status code {} and message {}",
+                                                                status, statusText );
+                return -1;
+            }
+            return status;
         }
 
         public List<Task> split( Endpoint endpointType )
@@ -548,6 +877,88 @@ public class DefaultTranslator
         {
             return chunk.size();
         }
+
+        long getElapsedMillis()
+        {
+            return TimeUnit.NANOSECONDS.toMillis( elapsedNanos );
+        }
+    }
+
+    /**
+     * The queue of tasks waiting to be sent. It is informed of each task once it has completed.
+     */
+    private class TaskQueue extends ArrayDeque<Task>
+    {
+        void completed( Task task )
+        {
+        }
+    }
+
+    /**
+     * A queue that lazily creates tasks from the remaining projects, sizing each using the latency of those that
+     * have completed. Tasks created by splitting failed tasks are sent first.
+     */
+    private class AdaptiveTaskQueue extends TaskQueue
+    {
+        private final Endpoint endpointType;
+
+        private final List<ProjectVersionRef> projects;
+
+        private final AdaptiveChunkSizer sizer;
+
+        private int offset;
+
+        AdaptiveTaskQueue( Endpoint endpointType, List<ProjectVersionRef> projects, AdaptiveChunkSizer sizer )
+        {
+            this.endpointType = endpointType;
+            this.projects = projects;
+            this.sizer = sizer;
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return super.isEmpty() && offset >= projects.size();
+        }
+
+        @Override
+        public Task remove()
+        {
+            if ( super.isEmpty() && offset < projects.size() )
+            {
+                int end = Math.min( projects.size(), offset + sizer.getChunkSize() );
+                Task task = new Task( projects.subList( offset, end ), endpointUrl, endpointType );
+                offset = end;
+                return task;
+            }
+            return super.remove();
+        }
+
+        @Override
+        void completed( Task task )
+        {
+            if ( task.isSuccess() )
+            {
+                sizer.onSuccess( task.getChunkSize(), task.getElapsedMillis() );
+            }
+            else if ( isRecoverable( task.getStatus() ) )
+            {
+                sizer.onFailure();
+            }
+        }
+    }
+
+    private static class TranslatorThreadFactory implements ThreadFactory
+    {
+        private static final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread( Runnable r )
+        {
+            Thread t = new Thread( r, "rest-translator-" + threadCount.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        }
     }
 
     private static void printFinishTime ( Logger logger, long start, boolean finished )
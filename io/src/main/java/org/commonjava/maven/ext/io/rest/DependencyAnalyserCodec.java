@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.json.DependencyAnalyserResult;
+import org.commonjava.maven.ext.common.json.ErrorMessage;
+import org.commonjava.maven.ext.common.util.JSONUtils.InternalObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+
+/**
+ * Streaming encoder and decoder for the Dependency Analyser lookup endpoints. Requests are written directly from the
+ * list of ProjectVersionRefs and responses are read one result at a time (using the deserializers registered by
+ * {@link InternalObjectMapper}) straight into the result map, avoiding building the intermediate request and
+ * response object graphs.
+ */
+final class DependencyAnalyserCodec
+{
+    private static final Logger logger = LoggerFactory.getLogger( DependencyAnalyserCodec.class );
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final ObjectReader RESULT_READER;
+
+    static
+    {
+        // Registers the custom serializers and deserializers.
+        new InternalObjectMapper( MAPPER );
+
+        RESULT_READER = MAPPER.readerFor( DependencyAnalyserResult.class );
+    }
+
+    private DependencyAnalyserCodec()
+    {
+    }
+
+    /**
+     * Writes the request body for a lookup. This is equivalent to serializing a
+     * {@link org.jboss.da.lookup.model.MavenLookupRequest} or {@link org.jboss.da.lookup.model.MavenLatestRequest}.
+     *
+     * @param mode the lookup mode
+     * @param brewPullActive whether brew pull is active ; only written if not null.
+     * @param artifacts the GAVs to lookup.
+     * @return the encoded request.
+     * @throws IOException if an error occurs.
+     */
+    static byte[] writeRequest( String mode, Boolean brewPullActive, Collection<ProjectVersionRef> artifacts )
+                    throws IOException
+    {
+        // Approximately 100 bytes per GAV.
+        final ByteArrayOutputStream out = new ByteArrayOutputStream( 64 + artifacts.size() * 100 );
+
+        try ( JsonGenerator generator = MAPPER.getFactory().createGenerator( out ) )
+        {
+            generator.writeStartObject();
+            if ( mode != null )
+            {
+                generator.writeStringField( "mode", mode );
+            }
+            if ( brewPullActive != null )
+            {
+                generator.writeBooleanField( "brewPullActive", brewPullActive );
+            }
+            generator.writeArrayFieldStart( "artifacts" );
+            for ( ProjectVersionRef p : artifacts )
+            {
+                generator.writeStartObject();
+                generator.writeStringField( "groupId", p.getGroupId() );
+                generator.writeStringField( "artifactId", p.getArtifactId() );
+                generator.writeStringField( "version", p.getVersionString() );
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a lookup response, adding each result with a non-blank version to the result map.
+     *
+     * @param content the response stream.
+     * @param bestMatch if true use the best match version, otherwise the latest version.
+     * @param result the map to populate.
+     * @throws IOException if an error occurs.
+     */
+    static void readResponse( InputStream content, boolean bestMatch, Map<ProjectVersionRef, String> result )
+                    throws IOException
+    {
+        try ( MappingIterator<DependencyAnalyserResult> iterator = RESULT_READER.readValues( content ) )
+        {
+            while ( iterator.hasNextValue() )
+            {
+                DependencyAnalyserResult r = iterator.nextValue();
+                String version = bestMatch ? r.getBestMatchVersion() : r.getLatestVersion();
+
+                if ( isNotBlank( version ) )
+                {
+                    // If there is a duplicate key, use the original.
+                    String original = result.putIfAbsent( r.getProjectVersionRef(), version );
+                    if ( original != null )
+                    {
+                        logger.warn( "Located duplicate key {}", r.getProjectVersionRef() );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an error message body.
+     *
+     * @param body the response body.
+     * @return the decoded ErrorMessage.
+     * @throws IOException if an error occurs.
+     */
+    static ErrorMessage readError( String body ) throws IOException
+    {
+        return MAPPER.readValue( body, ErrorMessage.class );
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.json.RESTMetrics;
+import org.commonjava.maven.ext.io.rest.DefaultTranslator.Endpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.commons.lang.StringUtils.isNotEmpty;
+
+/**
+ * A {@link Translator} that either records the answers of another Translator to a file, or replays a previously
+ * recorded file without contacting any endpoint. Replaying allows an alignment to be rerun offline and
+ * deterministically, e.g. to investigate a manipulation problem or to benchmark the alignment itself.
+ * <p>
+ * Every GAV looked up while recording is written, including those with no matching version, so that a replay can
+ * tell them apart from GAVs that were never recorded ; looking up the latter fails rather than silently returning no
+ * version. The file is a {@link TranslationStore} with a <code>version</code> column.
+ */
+public class RecordReplayTranslator
+                implements Translator
+{
+    public enum Mode
+    {
+        RECORD,
+        REPLAY
+    }
+
+    private final Logger logger = LoggerFactory.getLogger( getClass() );
+
+    private final Translator delegate;
+
+    private final TranslationStore store;
+
+    private final Mode mode;
+
+    private final Map<Endpoint, Map<ProjectVersionRef, String>> recording = new HashMap<>();
+
+    private boolean loaded;
+
+    /**
+     * @param delegate the Translator to record ; unused when replaying.
+     * @param file the file to record to or replay from.
+     * @param mode whether to record or replay.
+     */
+    public RecordReplayTranslator( Translator delegate, File file, Mode mode )
+    {
+        this.delegate = delegate;
+        this.store = new TranslationStore( file );
+        this.mode = mode;
+
+        for ( Endpoint e : Endpoint.values() )
+        {
+            recording.put( e, new LinkedHashMap<>() );
+        }
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> lookupVersions( List<ProjectVersionRef> projects ) throws RestException
+    {
+        return internalLookup( Endpoint.LOOKUP_GAVS, projects );
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> lookupProjectVersions( List<ProjectVersionRef> projects )
+                    throws RestException
+    {
+        return internalLookup( Endpoint.LOOKUP_LATEST, projects );
+    }
+
+    @Override
+    public RESTMetrics getMetrics()
+    {
+        return mode == Mode.RECORD ? delegate.getMetrics() : null;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( delegate != null )
+        {
+            delegate.close();
+        }
+    }
+
+    private Map<ProjectVersionRef, String> internalLookup( Endpoint endpoint, List<ProjectVersionRef> projects )
+                    throws RestException
+    {
+        if ( mode == Mode.REPLAY )
+        {
+            return replay( endpoint, projects );
+        }
+
+        final Map<ProjectVersionRef, String> result = endpoint == Endpoint.LOOKUP_GAVS ?
+                        delegate.lookupVersions( projects ) :
+                        delegate.lookupProjectVersions( projects );
+
+        synchronized ( this )
+        {
+            final Map<ProjectVersionRef, String> entries = recording.get( endpoint );
+
+            for ( ProjectVersionRef p : projects )
+            {
+                entries.put( p.asProjectVersionRef(), result.getOrDefault( p, "" ) );
+            }
+            save();
+        }
+        return result;
+    }
+
+    private synchronized Map<ProjectVersionRef, String> replay( Endpoint endpoint, List<ProjectVersionRef> projects )
+                    throws RestException
+    {
+        load();
+
+        final Map<ProjectVersionRef, String> entries = recording.get( endpoint );
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+
+        for ( ProjectVersionRef p : projects )
+        {
+            String version = entries.get( p.asProjectVersionRef() );
+
+            if ( version == null )
+            {
+                throw new RestException( "No recorded {} result for {} in {}", endpoint, p, store.getFile() );
+            }
+            else if ( isNotEmpty( version ) )
+            {
+                result.put( p, version );
+            }
+        }
+        logger.info( "Replayed {} GAVs from {}", projects.size(), store.getFile() );
+
+        return result;
+    }
+
+    private void load() throws RestException
+    {
+        if ( loaded )
+        {
+            return;
+        }
+
+        try
+        {
+            store.read( ( endpoint, gav, values ) -> {
+                if ( values.length != 1 )
+                {
+                    throw new RestException( "Invalid {} entry for {} in REST recording {}", endpoint, gav,
+                                             store.getFile() );
+                }
+                recording.get( endpoint ).put( gav, values[0] );
+            } );
+            loaded = true;
+            logger.debug( "Loaded REST recording from {}", store.getFile() );
+        }
+        catch ( IOException | IllegalArgumentException e )
+        {
+            throw new RestException( "Unable to read REST recording {}", e, store.getFile() );
+        }
+    }
+
+    private void save()
+    {
+        try
+        {
+            int count = store.write( recording, v -> new String[] { v } );
+            logger.debug( "Recorded {} REST results to {}", count, store.getFile() );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to write REST recording {}: {}", store.getFile(), e.getMessage() );
+        }
+    }
+}
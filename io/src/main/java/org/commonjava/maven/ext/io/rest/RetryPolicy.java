@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controls how a {@link DefaultTranslator} waits between retries and when it stops sending requests to an endpoint.
+ * <p>
+ * Waits use decorrelated jitter: each is chosen at random between the base duration and three times the previous
+ * wait, capped at the maximum. If the maximum is not above the base duration every wait is the base duration.
+ * <p>
+ * Each endpoint has a {@link CircuitBreaker} which fails requests fast after a number of consecutive failures.
+ */
+public class RetryPolicy
+{
+    public static final int DEFAULT_CIRCUIT_BREAKER_THRESHOLD = 0;
+
+    public static final int DEFAULT_CIRCUIT_BREAKER_DURATION_SEC = 60;
+
+    private final long maxRetryMillis;
+
+    private final int circuitBreakerThreshold;
+
+    private final long circuitBreakerMillis;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a policy with fixed waits and no circuit breaker.
+     */
+    public RetryPolicy()
+    {
+        this( 0, DEFAULT_CIRCUIT_BREAKER_THRESHOLD, DEFAULT_CIRCUIT_BREAKER_DURATION_SEC );
+    }
+
+    /**
+     * @param maxRetryDuration the maximum wait between retries in seconds; if not greater than the retry duration
+     *                         waits are fixed.
+     * @param circuitBreakerThreshold the number of consecutive failures after which requests to an endpoint are
+     *                                rejected; if zero the circuit breaker is disabled.
+     * @param circuitBreakerDuration how long in seconds to reject requests for; defaults to
+     *                               {@link #DEFAULT_CIRCUIT_BREAKER_DURATION_SEC}
+     */
+    public RetryPolicy( int maxRetryDuration, int circuitBreakerThreshold, int circuitBreakerDuration )
+    {
+        this.maxRetryMillis = TimeUnit.SECONDS.toMillis( maxRetryDuration );
+        this.circuitBreakerThreshold = circuitBreakerThreshold;
+        this.circuitBreakerMillis = TimeUnit.SECONDS.toMillis( circuitBreakerDuration );
+    }
+
+    /**
+     * Calculates the next wait.
+     *
+     * @param baseMillis the minimum wait.
+     * @param previousMillis the previous wait, or zero if this is the first.
+     * @return the time to wait in milliseconds.
+     */
+    long nextDelay( long baseMillis, long previousMillis )
+    {
+        if ( maxRetryMillis <= baseMillis )
+        {
+            return baseMillis;
+        }
+        long upper = Math.max( baseMillis, previousMillis ) * 3;
+
+        return Math.min( maxRetryMillis, baseMillis + (long) ( ThreadLocalRandom.current().nextDouble()
+                        * ( upper - baseMillis ) ) );
+    }
+
+    /**
+     * @param endpoint the full URL of the endpoint.
+     * @return the circuit breaker for the endpoint.
+     */
+    CircuitBreaker getCircuitBreaker( String endpoint )
+    {
+        return circuitBreakers.computeIfAbsent( endpoint, e -> new CircuitBreaker( e, circuitBreakerThreshold,
+                                                                                   circuitBreakerMillis ) );
+    }
+}
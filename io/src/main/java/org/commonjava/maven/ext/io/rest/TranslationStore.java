@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.io.rest.DefaultTranslator.Endpoint;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A file of translation results, shared by {@link CachingTranslator} and {@link RecordReplayTranslator}. Each line is
+ * a tab separated list of <code>endpoint gav</code> followed by the columns of its owner, e.g. the version.
+ */
+final class TranslationStore
+{
+    static final String SEPARATOR = "\t";
+
+    private final File file;
+
+    TranslationStore( File file )
+    {
+        this.file = file;
+    }
+
+    File getFile()
+    {
+        return file;
+    }
+
+    boolean exists()
+    {
+        return file.exists();
+    }
+
+    /**
+     * Reads every line of the file.
+     *
+     * @param consumer called with the endpoint, GAV and remaining columns of each line.
+     * @throws IOException if the file cannot be read.
+     * @throws RestException if the consumer rejects a line.
+     * @throws IllegalArgumentException if a line does not start with an endpoint and GAV.
+     */
+    void read( LineConsumer consumer ) throws IOException, RestException
+    {
+        try ( BufferedReader reader = Files.newBufferedReader( file.toPath(), StandardCharsets.UTF_8 ) )
+        {
+            String line;
+            while ( ( line = reader.readLine() ) != null )
+            {
+                String[] values = line.split( SEPARATOR, -1 );
+
+                if ( values.length < 3 )
+                {
+                    throw new IllegalArgumentException( "Invalid line '" + line + "'" );
+                }
+                consumer.accept( Endpoint.valueOf( values[0] ), SimpleProjectVersionRef.parse( values[1] ),
+                                 Arrays.copyOfRange( values, 2, values.length ) );
+            }
+        }
+    }
+
+    /**
+     * Replaces the file with the given entries, writing to a temporary file first so that a reader never sees a
+     * partial file.
+     *
+     * @param entries the entries of each endpoint.
+     * @param columns the columns to write after the endpoint and GAV of an entry.
+     * @param <V> the type of the entries.
+     * @return the number of lines written.
+     * @throws IOException if the file cannot be written.
+     */
+    <V> int write( Map<Endpoint, Map<ProjectVersionRef, V>> entries, Function<V, String[]> columns )
+                    throws IOException
+    {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories( parent.toPath() );
+
+        int count = 0;
+        final File temp = File.createTempFile( file.getName(), ".tmp", parent );
+        boolean moved = false;
+        try
+        {
+            try ( BufferedWriter writer = Files.newBufferedWriter( temp.toPath(), StandardCharsets.UTF_8 ) )
+            {
+                for ( Map.Entry<Endpoint, Map<ProjectVersionRef, V>> endpoint : entries.entrySet() )
+                {
+                    for ( Map.Entry<ProjectVersionRef, V> e : endpoint.getValue().entrySet() )
+                    {
+                        ProjectVersionRef p = e.getKey();
+                        writer.write( endpoint.getKey().name() + SEPARATOR + p.getGroupId() + ':' + p.getArtifactId()
+                                                      + ':' + p.getVersionString() );
+                        for ( String column : columns.apply( e.getValue() ) )
+                        {
+                            writer.write( SEPARATOR );
+                            writer.write( column );
+                        }
+                        writer.newLine();
+                        count++;
+                    }
+                }
+            }
+            Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE );
+            moved = true;
+        }
+        finally
+        {
+            if ( !moved )
+            {
+                FileUtils.deleteQuietly( temp );
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    interface LineConsumer
+    {
+        void accept( Endpoint endpoint, ProjectVersionRef gav, String[] columns ) throws RestException;
+    }
+}
@@ -16,14 +16,19 @@
 package org.commonjava.maven.ext.io.rest;
 
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.json.RESTMetrics;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * @author vdedik@redhat.com
  */
 public interface Translator
+    extends AutoCloseable
 {
     int CHUNK_SPLIT_COUNT = 4;
 
@@ -33,6 +38,10 @@ public interface Translator
 
     int RETRY_DURATION_SEC = 30;
 
+    int DEFAULT_CONCURRENCY = 1;
+
+    int DEFAULT_TARGET_LATENCY_SEC = 0;
+
     /**
      * Executes HTTP request to a REST service that translates versions
      *
@@ -52,4 +61,93 @@ public interface Translator
      * @throws RestException if an error occurs.
      */
     Map<ProjectVersionRef, String>  lookupProjectVersions( List<ProjectVersionRef> projects ) throws RestException;
+
+    /**
+     * Asynchronous variant of {@link Translator#lookupVersions(List)}. The lookup runs on its own thread so that it
+     * may proceed alongside other lookups.
+     *
+     * @param projects List of projects (GAVs)
+     * @return a future completing with the Map of ProjectVersionRef objects as keys and translated versions as values,
+     * or exceptionally with a {@link RestException}.
+     */
+    default CompletableFuture<Map<ProjectVersionRef, String>> lookupVersionsAsync( List<ProjectVersionRef> projects )
+    {
+        return CompletableFuture.supplyAsync( () -> {
+            try
+            {
+                return lookupVersions( projects );
+            }
+            catch ( RestException e )
+            {
+                throw new CompletionException( e );
+            }
+        }, AsyncLookups.EXECUTOR );
+    }
+
+    /**
+     * Asynchronous variant of {@link Translator#lookupProjectVersions(List)}. The lookup runs on its own thread so that
+     * it may proceed alongside other lookups.
+     *
+     * @param projects List of projects (GAVs)
+     * @return a future completing with the Map of ProjectVersionRef objects as keys and translated versions as values,
+     * or exceptionally with a {@link RestException}.
+     */
+    default CompletableFuture<Map<ProjectVersionRef, String>> lookupProjectVersionsAsync( List<ProjectVersionRef> projects )
+    {
+        return CompletableFuture.supplyAsync( () -> {
+            try
+            {
+                return lookupProjectVersions( projects );
+            }
+            catch ( RestException e )
+            {
+                throw new CompletionException( e );
+            }
+        }, AsyncLookups.EXECUTOR );
+    }
+
+    /**
+     * @return a summary of the requests made by this translator, or null if they are not recorded.
+     */
+    default RESTMetrics getMetrics()
+    {
+        return null;
+    }
+
+    /**
+     * Releases any resources, such as HTTP connections, held by this translator once the lookups are done.
+     */
+    @Override
+    default void close()
+    {
+    }
+
+    /**
+     * Waits for the result of an asynchronous lookup.
+     *
+     * @param future the future returned by one of the asynchronous lookups.
+     * @return Map of ProjectVersionRef objects as keys and translated versions as values
+     * @throws RestException if the lookup failed or the wait was interrupted.
+     */
+    static Map<ProjectVersionRef, String> await( CompletableFuture<Map<ProjectVersionRef, String>> future )
+                    throws RestException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RestException( "Interrupted while waiting for REST response", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RestException )
+            {
+                throw (RestException) e.getCause();
+            }
+            throw new RestException( "Caught exception calling server", e.getCause() );
+        }
+    }
 }
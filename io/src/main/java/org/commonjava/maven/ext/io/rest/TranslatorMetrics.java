@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.ext.common.json.RESTMetrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Accumulates the metrics of the requests made by a {@link DefaultTranslator} over all of its lookups.
+ */
+class TranslatorMetrics
+{
+    /**
+     * Upper bounds in milliseconds of the latency histogram buckets.
+     */
+    static final long[] LATENCY_BUCKETS = { 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000, 120000 };
+
+    private final long[] histogram = new long[LATENCY_BUCKETS.length + 1];
+
+    private final Map<Integer, Long> statuses = new TreeMap<>();
+
+    private long requests;
+
+    private long gavs;
+
+    private long splits;
+
+    private long retries;
+
+    private long requestBytes;
+
+    private long responseBytes;
+
+    private long totalMillis;
+
+    private long minMillis = Long.MAX_VALUE;
+
+    private long maxMillis;
+
+    /**
+     * Record a completed request.
+     *
+     * @param gavCount the number of GAVs in the request.
+     * @param status the HTTP status, or a negative value if there was no response.
+     * @param elapsedMillis the time the request took.
+     * @param sentBytes the size of the request body.
+     * @param receivedBytes the size of the response body.
+     */
+    synchronized void record( int gavCount, int status, long elapsedMillis, long sentBytes, long receivedBytes )
+    {
+        requests++;
+        gavs += gavCount;
+        requestBytes += sentBytes;
+        responseBytes += receivedBytes;
+        totalMillis += elapsedMillis;
+        minMillis = Math.min( minMillis, elapsedMillis );
+        maxMillis = Math.max( maxMillis, elapsedMillis );
+        statuses.merge( status, 1L, Long::sum );
+
+        int bucket = 0;
+        while ( bucket < LATENCY_BUCKETS.length && elapsedMillis > LATENCY_BUCKETS[bucket] )
+        {
+            bucket++;
+        }
+        histogram[bucket]++;
+    }
+
+    synchronized void recordSplit()
+    {
+        splits++;
+    }
+
+    /**
+     * Record requests that will be delayed before being sent.
+     *
+     * @param count the number of requests.
+     */
+    synchronized void recordRetries( int count )
+    {
+        retries += count;
+    }
+
+    /**
+     * @return a snapshot of the metrics for the alignment report.
+     */
+    synchronized RESTMetrics toReport()
+    {
+        final RESTMetrics report = new RESTMetrics();
+
+        report.setRequests( requests );
+        report.setGavs( gavs );
+        report.setSplits( splits );
+        report.setRetries( retries );
+        report.setRequestBytes( requestBytes );
+        report.setResponseBytes( responseBytes );
+        report.setTotalMillis( totalMillis );
+        report.setMinMillis( requests == 0 ? 0 : minMillis );
+        report.setMaxMillis( maxMillis );
+
+        for ( int i = 0; i < histogram.length; i++ )
+        {
+            report.getLatencyHistogram().put( i < LATENCY_BUCKETS.length ? String.valueOf( LATENCY_BUCKETS[i] ) : "+Inf",
+                                              histogram[i] );
+        }
+        statuses.forEach( ( s, c ) -> report.getStatuses().merge( s < 0 ? "error" : String.valueOf( s ), c, Long::sum ) );
+
+        return report;
+    }
+}
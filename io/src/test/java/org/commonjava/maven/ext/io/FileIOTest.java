@@ -17,6 +17,7 @@ package org.commonjava.maven.ext.io;
 
 import org.apache.commons.io.FileUtils;
 import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.util.LineSeparator;
 import org.commonjava.maven.ext.io.resolver.GalleyInfrastructure;
 import org.commonjava.maven.ext.io.rest.handler.StaticResourceHandler;
 import org.commonjava.maven.ext.io.rest.rule.MockServer;
@@ -84,4 +85,18 @@ public class FileIOTest
         File result = fileIO.resolveURL( "file://" + root.getAbsolutePath() );
         assertEquals( root, result );
     }
+
+    @Test
+    public void testDetermineEOL() throws Exception
+    {
+        assertEquals( LineSeparator.NL, FileIO.determineEOL( "<project>\n</project>".getBytes( StandardCharsets.UTF_8 ) ) );
+        assertEquals( LineSeparator.CRNL, FileIO.determineEOL( "<project>\r\n</project>".getBytes( StandardCharsets.UTF_8 ) ) );
+        assertEquals( LineSeparator.CR, FileIO.determineEOL( "<project>\r</project>".getBytes( StandardCharsets.UTF_8 ) ) );
+    }
+
+    @Test( expected = ManipulationException.class )
+    public void testDetermineEOLSingleLine() throws Exception
+    {
+        FileIO.determineEOL( "<project/>".getBytes( StandardCharsets.UTF_8 ) );
+    }
 }
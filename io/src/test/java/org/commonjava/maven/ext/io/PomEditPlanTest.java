@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PomEditPlanTest
+{
+    private static final String POM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<!-- Ünïcode comment -->\n"
+                    + "<project   xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                    + "  <modelVersion>4.0.0</modelVersion>\n"
+                    + "  <groupId>org.foo</groupId>\n"
+                    + "  <artifactId>bar</artifactId>\n"
+                    + "  <version> 1.0 </version>\n"
+                    + "  <name>Bär</name>\n"
+                    + "  <properties>\n"
+                    + "    <foo.version>1.0</foo.version><!-- The version -->\n"
+                    + "    <empty/>\n"
+                    + "  </properties>\n"
+                    + "  <dependencies>\n"
+                    + "    <dependency>\n"
+                    + "      <groupId>org.foo</groupId>\n"
+                    + "      <artifactId>foo</artifactId>\n"
+                    + "      <version>${foo.version}</version>\n"
+                    + "    </dependency>\n"
+                    + "    <dependency>\n"
+                    + "      <groupId>org.foo</groupId>\n"
+                    + "      <artifactId>baz</artifactId>\n"
+                    + "      <version>1.0</version>\n"
+                    + "    </dependency>\n"
+                    + "  </dependencies>\n"
+                    + "</project>\n";
+
+    @Test
+    public void testEditValues() throws Exception
+    {
+        Model original = readModel();
+        Model model = original.clone();
+
+        model.setVersion( "1.0.redhat-1" );
+        model.setName( "Bär & Baz" );
+        model.getProperties().setProperty( "foo.version", "2.0" );
+        model.getDependencies().get( 1 ).setVersion( "3.0" );
+
+        PomEditPlan plan = PomEditPlan.create( POM.getBytes( StandardCharsets.UTF_8 ), original, model, false );
+        assertNotNull( plan );
+        assertEquals( 4, plan.size() );
+
+        assertEquals( POM.replace( "<version> 1.0 </version>", "<version> 1.0.redhat-1 </version>" )
+                         .replace( "<name>Bär</name>", "<name>Bär &amp; Baz</name>" )
+                         .replace( "<foo.version>1.0</foo.version>", "<foo.version>2.0</foo.version>" )
+                         .replace( "<version>1.0</version>", "<version>3.0</version>" ), render( plan ) );
+    }
+
+    @Test
+    public void testEditOuttro() throws Exception
+    {
+        Model original = readModel();
+
+        PomEditPlan plan = PomEditPlan.create( POM.getBytes( StandardCharsets.UTF_8 ), original, original.clone(),
+                                               false );
+        assertNotNull( plan );
+        assertEquals( "\n", plan.getOuttro() );
+
+        plan.setOuttro( "\n<!-- Modified -->\n" );
+        assertEquals( POM + "<!-- Modified -->\n", render( plan ) );
+    }
+
+    @Test
+    public void testStructuralChange() throws Exception
+    {
+        Model original = readModel();
+        Model model = original.clone();
+
+        Dependency dependency = new Dependency();
+        dependency.setGroupId( "org.foo" );
+        dependency.setArtifactId( "qux" );
+        dependency.setVersion( "1.0" );
+        model.addDependency( dependency );
+
+        assertNull( PomEditPlan.create( POM.getBytes( StandardCharsets.UTF_8 ), original, model, false ) );
+
+        model = original.clone();
+        model.getProperties().setProperty( "empty", "1.0" );
+
+        assertNull( PomEditPlan.create( POM.getBytes( StandardCharsets.UTF_8 ), original, model, false ) );
+    }
+
+    @Test
+    public void testSchemaRequired() throws Exception
+    {
+        Model original = readModel();
+
+        assertNull( PomEditPlan.create( POM.getBytes( StandardCharsets.UTF_8 ), original, original.clone(), true ) );
+    }
+
+    @Test
+    public void testChangedElements() throws Exception
+    {
+        Model original = readModel();
+        Model model = original.clone();
+        Map<String, String> originalValues = PomEditPlan.flatten( original );
+
+        assertTrue( PomEditPlan.changedElements( originalValues, PomEditPlan.flatten( model ) ).isEmpty() );
+
+        model.setVersion( "1.0.redhat-1" );
+        model.getProperties().setProperty( "empty", "1.0" );
+        Dependency dependency = new Dependency();
+        dependency.setGroupId( "org.foo" );
+        dependency.setArtifactId( "qux" );
+        model.addDependency( dependency );
+
+        assertEquals( new HashSet<>( Arrays.asList( "version", "properties", "dependencies" ) ),
+                      PomEditPlan.changedElements( originalValues, PomEditPlan.flatten( model ) ) );
+
+        model = original.clone();
+        model.getDependencies().remove( 1 );
+
+        assertEquals( Collections.singleton( "dependencies" ),
+                      PomEditPlan.changedElements( originalValues, PomEditPlan.flatten( model ) ) );
+    }
+
+    private static String render( PomEditPlan plan )
+    {
+        return new String( plan.render(), StandardCharsets.UTF_8 );
+    }
+
+    private static Model readModel() throws Exception
+    {
+        return new MavenXpp3Reader().read( new StringReader( POM ) );
+    }
+}
@@ -20,7 +20,9 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.reflect.FieldUtils;
 import org.apache.maven.model.Model;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationException;
 import org.commonjava.maven.ext.common.model.Project;
+import org.commonjava.maven.ext.common.util.LineSeparator;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -28,15 +30,23 @@ import org.junit.contrib.java.lang.system.SystemOutRule;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.io.ObjectOutputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class PomIOTest
 {
@@ -230,4 +240,326 @@ public class PomIOTest
         s = FileUtils.readFileToString( targetFile, StandardCharsets.UTF_8 );
         assertEquals( 1, StringUtils.countMatches(s, "Modified by POM Manipulation Extension" ) );
     }
+
+    @Test
+    public void testRewriteRetainedDocument()
+                    throws Exception
+    {
+        URL resource = PomIOTest.class.getResource( filename );
+        assertNotNull( resource );
+        File pom = new File( resource.getFile() );
+
+        File targetFile = folder.newFile( "target.xml" );
+        FileUtils.copyFile( pom, targetFile );
+
+        Project project = pomIO.parseProject( targetFile ).get( 0 );
+        // The document is only parsed when the POM is rewritten through it.
+        assertNull( project.getPomDocument() );
+        project.getModel().setDescription( "Retained" );
+
+        // The retained content is parsed so the original file is not read again.
+        assertTrue( targetFile.delete() );
+        HashSet<Project> changed = new HashSet<>();
+        changed.add( project );
+        pomIO.rewritePOMs( changed );
+        assertNotNull( project.getPomDocument() );
+
+        assertTrue( FileUtils.readFileToString( targetFile, StandardCharsets.UTF_8 )
+                             .startsWith( "<?xml version=\"1.0\"?>\r\n\r\n<project " ) );
+        assertEquals( LineSeparator.CRNL, FileIO.determineEOL( targetFile ) );
+        assertEquals( "Retained", pomIO.parseProject( targetFile ).get( 0 ).getModel().getDescription() );
+    }
+
+    @Test
+    public void testEditRewrite()
+                    throws Exception
+    {
+        URL resource = PomIOTest.class.getResource( filename );
+        assertNotNull( resource );
+        File pom = new File( resource.getFile() );
+
+        File targetFile = folder.newFile( "target.xml" );
+        FileUtils.copyFile( pom, targetFile );
+
+        Project project = pomIO.parseProject( targetFile ).get( 0 );
+        project.getModel().setVersion( "1.0.redhat-00001" );
+        project.getModel().getParent().setVersion( "37" );
+
+        HashSet<Project> changed = new HashSet<>();
+        changed.add( project );
+        pomIO.rewritePOMs( changed );
+
+        // Only the values are changed, everything else is exactly as it was.
+        assertEquals( FileUtils.readFileToString( pom, StandardCharsets.UTF_8 )
+                               .replaceFirst( "<version>36</version>", "<version>37</version>" )
+                               .replaceFirst( "<version>1.0</version>", "<version>1.0.redhat-00001</version>" ),
+                      FileUtils.readFileToString( targetFile, StandardCharsets.UTF_8 ) );
+        assertNull( project.getPomDocument() );
+        assertTrue( project.isPomRewritten() );
+    }
+
+    @Test
+    public void testParseReactorOrder()
+                    throws Exception
+    {
+        File root = createReactor( 40 );
+
+        List<Project> projects = pomIO.parseProject( new File( root, filename ) );
+
+        assertEquals( 41, projects.size() );
+        assertTrue( projects.get( 0 ).isExecutionRoot() );
+        assertFalse( projects.get( 0 ).isIncrementalPME() );
+        assertEquals( LineSeparator.NL, projects.get( 0 ).getLineSeparator() );
+        assertArrayEquals( FileUtils.readFileToByteArray( new File( root, filename ) ),
+                           projects.get( 0 ).getPomContent() );
+        assertTrue( projects.get( 0 ).isInheritanceRoot() );
+        assertNull( projects.get( 0 ).getProjectParent() );
+
+        for ( int i = 1; i < projects.size(); i++ )
+        {
+            Project p = projects.get( i );
+
+            assertEquals( "module" + i, p.getArtifactId() );
+            assertEquals( projects.get( 0 ), p.getProjectParent() );
+            assertFalse( p.isExecutionRoot() );
+        }
+    }
+
+    @Test
+    public void testParseNestedReactor()
+                    throws Exception
+    {
+        File root = createReactor( 3 );
+        FileUtils.writeStringToFile( new File( root, "module2/pom.xml" ),
+                                     "<project>\n  <modelVersion>4.0.0</modelVersion>\n"
+                                                     + "  <parent>\n    <groupId>org.foo</groupId>\n"
+                                                     + "    <artifactId>root</artifactId>\n"
+                                                     + "    <version>1.0</version>\n  </parent>\n"
+                                                     + "  <artifactId>module2</artifactId>\n"
+                                                     + "  <packaging>pom</packaging>\n"
+                                                     + "  <modules>\n    <module>sub1</module>\n"
+                                                     + "    <module>sub2</module>\n"
+                                                     + "    <module>../module1</module>\n  </modules>\n"
+                                                     + "</project>\n", StandardCharsets.UTF_8 );
+        FileUtils.writeStringToFile( new File( root, "module2/sub1/pom.xml" ),
+                                     "<project>\n  <modelVersion>4.0.0</modelVersion>\n"
+                                                     + "  <parent>\n    <groupId>org.foo</groupId>\n"
+                                                     + "    <artifactId>module2</artifactId>\n"
+                                                     + "    <version>1.0</version>\n  </parent>\n"
+                                                     + "  <artifactId>sub1</artifactId>\n"
+                                                     + "</project>\n", StandardCharsets.UTF_8 );
+        FileUtils.writeStringToFile( new File( root, "module2/sub2/pom.xml" ),
+                                     "<project>\n  <modelVersion>4.0.0</modelVersion>\n"
+                                                     + "  <parent>\n    <groupId>org.external</groupId>\n"
+                                                     + "    <artifactId>parent</artifactId>\n"
+                                                     + "    <version>1.0</version>\n"
+                                                     + "    <relativePath/>\n  </parent>\n"
+                                                     + "  <artifactId>sub2</artifactId>\n"
+                                                     + "</project>\n", StandardCharsets.UTF_8 );
+
+        List<Project> projects = pomIO.parseProject( new File( root, filename ) );
+
+        assertEquals( 6, projects.size() );
+        assertEquals( "root", projects.get( 0 ).getArtifactId() );
+        assertEquals( "module1", projects.get( 1 ).getArtifactId() );
+        assertEquals( "module2", projects.get( 2 ).getArtifactId() );
+        assertEquals( "module3", projects.get( 3 ).getArtifactId() );
+        assertEquals( "sub1", projects.get( 4 ).getArtifactId() );
+        assertEquals( "sub2", projects.get( 5 ).getArtifactId() );
+
+        assertEquals( projects.get( 2 ), projects.get( 4 ).getProjectParent() );
+        assertFalse( projects.get( 4 ).isInheritanceRoot() );
+        assertNull( projects.get( 5 ).getProjectParent() );
+        assertTrue( projects.get( 5 ).isInheritanceRoot() );
+    }
+
+    @Test
+    public void testParseReactorFailure()
+                    throws Exception
+    {
+        File root = createReactor( 10 );
+        FileUtils.writeStringToFile( new File( root, "module5/pom.xml" ), "<project><invalid></project>",
+                                     StandardCharsets.UTF_8 );
+
+        try
+        {
+            pomIO.parseProject( new File( root, filename ) );
+            fail( "Failed to throw ManipulationException." );
+        }
+        catch ( ManipulationException e )
+        {
+            assertTrue( e.getMessage().contains( "module5" ) );
+        }
+    }
+
+    @Test
+    public void testRewriteReactor()
+                    throws Exception
+    {
+        File root = createReactor( 40 );
+
+        List<Project> projects = pomIO.parseProject( new File( root, filename ) );
+        for ( Project p : projects )
+        {
+            p.getModel().setVersion( "2.0" );
+        }
+        assertEquals( "org.foo:root:2.0", pomIO.rewritePOMs( new LinkedHashSet<>( projects ) ).toString() );
+
+        projects = pomIO.parseProject( new File( root, filename ) );
+
+        assertEquals( 41, projects.size() );
+        for ( Project p : projects )
+        {
+            assertEquals( "2.0", p.getModel().getVersion() );
+        }
+    }
+
+    @Test
+    public void testRewriteReactorFailure()
+                    throws Exception
+    {
+        File root = createReactor( 10 );
+
+        List<Project> projects = pomIO.parseProject( new File( root, filename ) );
+        for ( Project p : projects )
+        {
+            p.getModel().setDescription( "Rewritten" );
+        }
+        FileUtils.deleteDirectory( new File( root, "module3" ) );
+        FileUtils.deleteDirectory( new File( root, "module7" ) );
+
+        try
+        {
+            pomIO.rewritePOMs( new LinkedHashSet<>( projects ) );
+            fail( "Failed to throw ManipulationException." );
+        }
+        catch ( ManipulationException e )
+        {
+            assertTrue( e.getMessage().contains( "module3" ) );
+            assertEquals( 1, e.getSuppressed().length );
+            assertTrue( e.getSuppressed()[0].getMessage().contains( "module7" ) );
+        }
+        // Every other project is still written.
+        assertTrue( FileUtils.readFileToString( new File( root, "module9/pom.xml" ), StandardCharsets.UTF_8 )
+                             .contains( "<description>Rewritten</description>" ) );
+    }
+
+    @Test
+    public void testSkipUnchangedRewrite()
+                    throws Exception
+    {
+        File root = createReactor( 3 );
+        long timestamp = 1000000000000L;
+        for ( int i = 1; i <= 3; i++ )
+        {
+            assertTrue( new File( root, "module" + i + "/pom.xml" ).setLastModified( timestamp ) );
+        }
+
+        List<Project> projects = pomIO.parseProject( new File( root, filename ) );
+        // Editing the original text and converting the document must both skip unchanged POMs.
+        projects.get( 2 ).setPomRewritten( true );
+        projects.get( 3 ).getModel().setDescription( "Rewritten" );
+
+        pomIO.rewritePOMs( new LinkedHashSet<>( projects.subList( 1, 4 ) ) );
+
+        assertEquals( timestamp, new File( root, "module1/pom.xml" ).lastModified() );
+        assertEquals( timestamp, new File( root, "module2/pom.xml" ).lastModified() );
+        assertNotEquals( timestamp, new File( root, "module3/pom.xml" ).lastModified() );
+        assertTrue( FileUtils.readFileToString( new File( root, "module3/pom.xml" ), StandardCharsets.UTF_8 )
+                             .contains( "<description>Rewritten</description>" ) );
+    }
+
+    @Test
+    public void testReactorSnapshot()
+                    throws Exception
+    {
+        File root = createReactor( 5 );
+        File snapshotDirectory = folder.newFolder();
+        PomIO snapshotPomIO = new PomIO( snapshotDirectory );
+
+        List<Project> projects = snapshotPomIO.parseProject( new File( root, filename ) );
+        assertEquals( 6, projects.size() );
+        File snapshot = ReactorSnapshot.getFile( snapshotDirectory, new File( root, filename ).getCanonicalFile() );
+        assertTrue( snapshot.exists() );
+
+        // Modifying the returned models must not affect the snapshot.
+        projects.get( 1 ).getModel().setDescription( "Modified" );
+
+        projects = snapshotPomIO.parseProject( new File( root, filename ) );
+        assertEquals( 6, projects.size() );
+        assertTrue( projects.get( 0 ).isExecutionRoot() );
+        assertTrue( projects.get( 0 ).isInheritanceRoot() );
+        for ( int i = 1; i < projects.size(); i++ )
+        {
+            assertEquals( "module" + i, projects.get( i ).getArtifactId() );
+            assertEquals( projects.get( 0 ), projects.get( i ).getProjectParent() );
+            assertNull( projects.get( i ).getModel().getDescription() );
+            assertNotNull( projects.get( i ).getPomContent() );
+        }
+
+        // A changed POM is parsed again.
+        FileUtils.writeStringToFile( new File( root, "module2/pom.xml" ),
+                                     FileUtils.readFileToString( new File( root, "module2/pom.xml" ),
+                                                                 StandardCharsets.UTF_8 )
+                                              .replace( "</artifactId>\n</project>",
+                                                        "</artifactId>\n  <description>Changed</description>\n"
+                                                                        + "</project>" ), StandardCharsets.UTF_8 );
+        projects = snapshotPomIO.parseProject( new File( root, filename ) );
+        assertEquals( 6, projects.size() );
+        assertEquals( "Changed", projects.get( 2 ).getModel().getDescription() );
+
+        // A module that no longer exists is no longer found.
+        FileUtils.deleteDirectory( new File( root, "module5" ) );
+        projects = snapshotPomIO.parseProject( new File( root, filename ) );
+        assertEquals( 5, projects.size() );
+        assertEquals( "Changed", projects.get( 2 ).getModel().getDescription() );
+    }
+
+    @Test
+    public void testReactorSnapshotRejectsOtherClasses()
+                    throws Exception
+    {
+        File root = createReactor( 2 );
+        File snapshotDirectory = folder.newFolder();
+        File snapshot = ReactorSnapshot.getFile( snapshotDirectory, new File( root, filename ).getCanonicalFile() );
+
+        try ( ObjectOutputStream out = new ObjectOutputStream( Files.newOutputStream( snapshot.toPath() ) ) )
+        {
+            out.writeObject( new Date() );
+        }
+        assertNull( ReactorSnapshot.load( snapshot ) );
+
+        // The snapshot is ignored and replaced.
+        assertEquals( 3, new PomIO( snapshotDirectory ).parseProject( new File( root, filename ) ).size() );
+        assertNotNull( ReactorSnapshot.load( snapshot ) );
+    }
+
+    private File createReactor( int moduleCount )
+                    throws Exception
+    {
+        File root = folder.newFolder();
+        StringBuilder modules = new StringBuilder();
+
+        for ( int i = 1; i <= moduleCount; i++ )
+        {
+            modules.append( "    <module>module" ).append( i ).append( "</module>\n" );
+
+            FileUtils.writeStringToFile( new File( root, "module" + i + "/pom.xml" ),
+                                         "<project>\n  <modelVersion>4.0.0</modelVersion>\n"
+                                                         + "  <parent>\n    <groupId>org.foo</groupId>\n"
+                                                         + "    <artifactId>root</artifactId>\n"
+                                                         + "    <version>1.0</version>\n  </parent>\n"
+                                                         + "  <artifactId>module" + i + "</artifactId>\n"
+                                                         + "</project>\n", StandardCharsets.UTF_8 );
+        }
+        FileUtils.writeStringToFile( new File( root, filename ),
+                                     "<project>\n  <modelVersion>4.0.0</modelVersion>\n"
+                                                     + "  <groupId>org.foo</groupId>\n"
+                                                     + "  <artifactId>root</artifactId>\n"
+                                                     + "  <version>1.0</version>\n"
+                                                     + "  <packaging>pom</packaging>\n"
+                                                     + "  <modules>\n" + modules + "  </modules>\n"
+                                                     + "</project>\n", StandardCharsets.UTF_8 );
+        return root;
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveChunkSizerTest
+{
+    @Test
+    public void testGrowsWhenFast()
+    {
+        AdaptiveChunkSizer sizer = new AdaptiveChunkSizer( 32, 4, 128, 1000 );
+
+        sizer.onSuccess( 32, 100 );
+        assertEquals( 40, sizer.getChunkSize() );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            sizer.onSuccess( sizer.getChunkSize(), 0 );
+        }
+        assertEquals( 128, sizer.getChunkSize() );
+    }
+
+    @Test
+    public void testGrowthLimitedByEstimate()
+    {
+        AdaptiveChunkSizer sizer = new AdaptiveChunkSizer( 32, 4, 128, 1000 );
+
+        // 32 GAVs in 990ms ; only 32 would fit in the target.
+        sizer.onSuccess( 32, 990 );
+        assertEquals( 32, sizer.getChunkSize() );
+    }
+
+    @Test
+    public void testShrinksWhenSlow()
+    {
+        AdaptiveChunkSizer sizer = new AdaptiveChunkSizer( 64, 4, 128, 1000 );
+
+        sizer.onSuccess( 64, 1500 );
+        assertEquals( 32, sizer.getChunkSize() );
+
+        // Much slower than the target ; the estimate is below half.
+        sizer.onSuccess( 32, 8000 );
+        assertEquals( 4, sizer.getChunkSize() );
+    }
+
+    @Test
+    public void testShrinksOnFailure()
+    {
+        AdaptiveChunkSizer sizer = new AdaptiveChunkSizer( 64, 8, 128, 1000 );
+
+        sizer.onFailure();
+        assertEquals( 16, sizer.getChunkSize() );
+        sizer.onFailure();
+        assertEquals( 8, sizer.getChunkSize() );
+    }
+}
@@ -126,6 +126,33 @@ public class AutoSplitTest
     }
 
 
+    @Test
+    public void testTranslateVersionsAdaptiveSplit()
+    {
+        final DefaultTranslator versionTranslator = new DefaultTranslator(
+                        mockServer.getUrl(), -1, 0, false, "", Collections.emptyMap(),
+                        DEFAULT_CONNECTION_TIMEOUT_SEC, DEFAULT_SOCKET_TIMEOUT_SEC, RETRY_DURATION_SEC,
+                        Translator.DEFAULT_CONCURRENCY, 60, new RetryPolicy(), false );
+
+        List<ProjectVersionRef> data = aLotOfGavs.subList( 0, 2200 );
+        handler.getRequestData().clear();
+        try
+        {
+            versionTranslator.lookupVersions( data );
+        }
+        catch ( RestException exception )
+        {
+            fail();
+        }
+        List<List<Map<String, Object>>> requestData = handler.getRequestData();
+
+        // The mock server responds well within the target so each chunk should be larger than the last.
+        assertEquals( 32, requestData.get( 0 ).size() );
+        assertTrue( requestData.get( 1 ).size() > 32 );
+        assertTrue( requestData.size() < 69 );
+        assertEquals( 2200, requestData.stream().mapToInt( List::size ).sum() );
+    }
+
     @Test
     public void testTranslateVersionsAutoSplitLarge()
     {
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.commonjava.maven.ext.io.rest.StubTranslator.FOUND;
+import static org.commonjava.maven.ext.io.rest.StubTranslator.MISSING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CachingTranslatorTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final StubTranslator delegate = new StubTranslator();
+
+    @Test
+    public void testCacheAcrossInstances() throws Exception
+    {
+        File cacheDir = temp.newFolder();
+        List<ProjectVersionRef> gavs = Arrays.asList( FOUND, MISSING );
+
+        Map<ProjectVersionRef, String> first = newTranslator( cacheDir, 3600, 100 ).lookupVersions( gavs );
+        Map<ProjectVersionRef, String> second = newTranslator( cacheDir, 3600, 100 ).lookupVersions( gavs );
+
+        assertEquals( 1, delegate.requests.size() );
+        assertEquals( gavs, delegate.requests.get( 0 ) );
+        assertEquals( first, second );
+        assertEquals( "1.0.redhat-1", second.get( FOUND ) );
+        assertFalse( second.containsKey( MISSING ) );
+    }
+
+    @Test
+    public void testCacheSeparatesEndpoints() throws Exception
+    {
+        File cacheDir = temp.newFolder();
+        Translator translator = newTranslator( cacheDir, 3600, 100 );
+
+        translator.lookupVersions( Arrays.asList( FOUND, MISSING ) );
+        translator.lookupProjectVersions( Arrays.asList( FOUND, MISSING ) );
+
+        assertEquals( 2, delegate.requests.size() );
+    }
+
+    @Test
+    public void testCacheExpiry() throws Exception
+    {
+        File cacheDir = temp.newFolder();
+
+        newTranslator( cacheDir, 0, 100 ).lookupVersions( Arrays.asList( FOUND, MISSING ) );
+        Thread.sleep( 10 );
+        newTranslator( cacheDir, 0, 100 ).lookupVersions( Arrays.asList( FOUND, MISSING ) );
+
+        assertEquals( 2, delegate.requests.size() );
+    }
+
+    @Test
+    public void testCacheEviction() throws Exception
+    {
+        File cacheDir = temp.newFolder();
+
+        newTranslator( cacheDir, 3600, 1 ).lookupVersions( Arrays.asList( FOUND, MISSING ) );
+        newTranslator( cacheDir, 3600, 1 ).lookupVersions( Arrays.asList( FOUND, MISSING ) );
+
+        assertEquals( 2, delegate.requests.size() );
+        assertEquals( 1, delegate.requests.get( 1 ).size() );
+
+        File[] files = cacheDir.listFiles();
+        assertTrue( files != null && files.length == 1 );
+    }
+
+    private Translator newTranslator( File cacheDir, long ttl, int maxSize )
+    {
+        return new CachingTranslator( delegate, cacheDir, "http://127.0.0.1", "", false, ttl, maxSize );
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.util.JSONUtils.InternalObjectMapper;
+import org.commonjava.maven.ext.io.rest.handler.GAVSchema;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DependencyAnalyserCodecTest
+{
+    private final InternalObjectMapper objectMapper = new InternalObjectMapper( new ObjectMapper() );
+
+    @Test
+    public void testWriteRequest() throws Exception
+    {
+        List<ProjectVersionRef> gavs = Arrays.asList( SimpleProjectVersionRef.parse( "org.foo:bar:1.0" ),
+                                                      SimpleProjectVersionRef.parse( "org.foo:baz:2.0" ) );
+
+        byte[] encoded = DependencyAnalyserCodec.writeRequest( "SERVICE", true, gavs );
+        GAVSchema request = objectMapper.readValue( new String( encoded, StandardCharsets.UTF_8 ), GAVSchema.class );
+
+        assertEquals( "SERVICE", request.mode );
+        assertTrue( request.brewPullActive );
+        assertEquals( 2, request.artifacts.size() );
+        assertEquals( "baz", request.artifacts.get( 1 ).get( "artifactId" ) );
+        assertEquals( "2.0", request.artifacts.get( 1 ).get( "version" ) );
+    }
+
+    @Test
+    public void testReadResponse() throws Exception
+    {
+        String response = "[" +
+                        "{\"groupId\":\"org.foo\",\"artifactId\":\"bar\",\"version\":\"1.0\",\"bestMatchVersion\":\"1.0.redhat-1\"}," +
+                        "{\"groupId\":\"org.foo\",\"artifactId\":\"baz\",\"version\":\"2.0\",\"bestMatchVersion\":null}," +
+                        "{\"groupId\":\"org.foo\",\"artifactId\":\"qux\",\"version\":\"3.0\",\"latestVersion\":\"3.0.redhat-2\"}" +
+                        "]";
+        Map<ProjectVersionRef, String> result = new HashMap<>();
+
+        DependencyAnalyserCodec.readResponse( new ByteArrayInputStream( response.getBytes( StandardCharsets.UTF_8 ) ),
+                                              true, result );
+
+        assertEquals( 1, result.size() );
+        assertEquals( "1.0.redhat-1", result.get( SimpleProjectVersionRef.parse( "org.foo:bar:1.0" ) ) );
+
+        result.clear();
+        DependencyAnalyserCodec.readResponse( new ByteArrayInputStream( response.getBytes( StandardCharsets.UTF_8 ) ),
+                                              false, result );
+
+        assertEquals( 1, result.size() );
+        assertEquals( "3.0.redhat-2", result.get( SimpleProjectVersionRef.parse( "org.foo:qux:3.0" ) ) );
+    }
+}
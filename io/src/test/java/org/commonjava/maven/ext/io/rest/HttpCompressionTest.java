@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.io.rest.handler.AddSuffixJettyHandler;
+import org.commonjava.maven.ext.io.rest.rule.MockServer;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.commonjava.maven.ext.io.rest.Translator.DEFAULT_CONNECTION_TIMEOUT_SEC;
+import static org.commonjava.maven.ext.io.rest.Translator.DEFAULT_SOCKET_TIMEOUT_SEC;
+import static org.commonjava.maven.ext.io.rest.Translator.RETRY_DURATION_SEC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HttpCompressionTest
+{
+    private final RecordingHandler handler = new RecordingHandler();
+
+    @Rule
+    public final MockServer mockServer = new MockServer( handler );
+
+    private final List<ProjectVersionRef> gavs = Arrays.asList(
+                    new SimpleProjectVersionRef( "com.example", "example", "1.0" ),
+                    new SimpleProjectVersionRef( "com.example", "example-dep", "2.0" ),
+                    new SimpleProjectVersionRef( "org.commonjava", "example", "1.0" ) );
+
+    @Test
+    public void testCompressedRequest() throws RestException
+    {
+        Map<ProjectVersionRef, String> result = createTranslator( true ).lookupVersions( gavs );
+
+        assertEquals( 3, result.size() );
+        assertEquals( "1.0-redhat-1", result.get( gavs.get( 0 ) ) );
+        assertEquals( "gzip", handler.contentEncoding );
+        assertTrue( handler.acceptEncoding.contains( "gzip" ) );
+    }
+
+    @Test
+    public void testUncompressedRequest() throws RestException
+    {
+        Map<ProjectVersionRef, String> result = createTranslator( false ).lookupVersions( gavs );
+
+        assertEquals( 3, result.size() );
+        assertNull( handler.contentEncoding );
+        assertTrue( handler.acceptEncoding.contains( "gzip" ) );
+    }
+
+    @Test
+    public void testLookupAfterClose() throws RestException
+    {
+        Translator translator = createTranslator( false );
+        // Closing before any lookup has nothing to release.
+        translator.close();
+
+        assertEquals( 3, translator.lookupVersions( gavs ).size() );
+        translator.close();
+        assertEquals( 3, translator.lookupVersions( gavs ).size() );
+        translator.close();
+    }
+
+    private Translator createTranslator( boolean compressRequests )
+    {
+        return new DefaultTranslator( mockServer.getUrl(), 0, Translator.CHUNK_SPLIT_COUNT, false, "",
+                                      Collections.emptyMap(), DEFAULT_CONNECTION_TIMEOUT_SEC,
+                                      DEFAULT_SOCKET_TIMEOUT_SEC, RETRY_DURATION_SEC,
+                                      Translator.DEFAULT_CONCURRENCY, Translator.DEFAULT_TARGET_LATENCY_SEC,
+                                      new RetryPolicy(), compressRequests );
+    }
+
+    /**
+     * Records the encoding headers of each request before the GzipHandler inflates the request and compresses the
+     * response.
+     */
+    private static class RecordingHandler extends HandlerWrapper
+    {
+        private String contentEncoding;
+
+        private String acceptEncoding;
+
+        RecordingHandler()
+        {
+            GzipHandler gzipHandler = new GzipHandler();
+            gzipHandler.setIncludedMethods( "POST" );
+            gzipHandler.setInflateBufferSize( 1024 );
+            gzipHandler.setMinGzipSize( 0 );
+            gzipHandler.setHandler( new AddSuffixJettyHandler() );
+
+            setHandler( gzipHandler );
+        }
+
+        @Override
+        public void handle( String target, Request baseRequest, HttpServletRequest request,
+                            HttpServletResponse response )
+                        throws IOException, ServletException
+        {
+            contentEncoding = request.getHeader( "Content-Encoding" );
+            acceptEncoding = request.getHeader( "Accept-Encoding" );
+
+            super.handle( target, baseRequest, request, response );
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.io.rest.RecordReplayTranslator.Mode;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.commonjava.maven.ext.io.rest.StubTranslator.FOUND;
+import static org.commonjava.maven.ext.io.rest.StubTranslator.MISSING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecordReplayTranslatorTest
+{
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testRecordAndReplay() throws Exception
+    {
+        File file = new File( temp.newFolder(), "recording.tsv" );
+        List<ProjectVersionRef> gavs = Arrays.asList( FOUND, MISSING );
+
+        Translator recorder = new RecordReplayTranslator( new StubTranslator(), file, Mode.RECORD );
+        Map<ProjectVersionRef, String> recorded = recorder.lookupVersions( gavs );
+        Map<ProjectVersionRef, String> recordedLatest = recorder.lookupProjectVersions(
+                        Collections.singletonList( FOUND ) );
+
+        assertTrue( file.exists() );
+
+        Translator replayer = new RecordReplayTranslator( null, file, Mode.REPLAY );
+
+        Map<ProjectVersionRef, String> replayed = replayer.lookupVersions( gavs );
+        assertEquals( recorded, replayed );
+        assertEquals( "1.0.redhat-1", replayed.get( FOUND ) );
+        assertFalse( replayed.containsKey( MISSING ) );
+
+        assertEquals( recordedLatest, replayer.lookupProjectVersions( Collections.singletonList( FOUND ) ) );
+    }
+
+    @Test
+    public void testReplayUnrecorded() throws Exception
+    {
+        File file = new File( temp.newFolder(), "recording.tsv" );
+
+        new RecordReplayTranslator( new StubTranslator(), file, Mode.RECORD ).lookupVersions(
+                        Collections.singletonList( FOUND ) );
+
+        Translator replayer = new RecordReplayTranslator( null, file, Mode.REPLAY );
+        try
+        {
+            replayer.lookupVersions( Arrays.asList( FOUND, MISSING ) );
+            fail( "Failed to throw RestException." );
+        }
+        catch ( RestException e )
+        {
+            assertTrue( e.getMessage().contains( MISSING.toString() ) );
+        }
+        try
+        {
+            replayer.lookupProjectVersions( Collections.singletonList( FOUND ) );
+            fail( "Failed to throw RestException." );
+        }
+        catch ( RestException e )
+        {
+            assertTrue( e.getMessage().contains( DefaultTranslator.Endpoint.LOOKUP_LATEST.getEndpoint() ) );
+        }
+    }
+
+    @Test( expected = RestException.class )
+    public void testReplayMissingFile() throws Exception
+    {
+        new RecordReplayTranslator( null, new File( temp.getRoot(), "missing.tsv" ), Mode.REPLAY ).lookupVersions(
+                        Collections.singletonList( FOUND ) );
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest
+{
+    @Test
+    public void testFixedDelay()
+    {
+        RetryPolicy policy = new RetryPolicy();
+
+        assertEquals( 5000, policy.nextDelay( 5000, 0 ) );
+        assertEquals( 5000, policy.nextDelay( 5000, 5000 ) );
+    }
+
+    @Test
+    public void testJitteredDelay()
+    {
+        RetryPolicy policy = new RetryPolicy( 60, 0, 60 );
+        long previous = 0;
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            long delay = policy.nextDelay( 1000, previous );
+
+            assertTrue( delay >= 1000 );
+            assertTrue( delay <= Math.min( 60000, Math.max( 1000, previous ) * 3 ) );
+            previous = delay;
+        }
+    }
+
+    @Test
+    public void testCircuitBreakerPerEndpoint()
+    {
+        RetryPolicy policy = new RetryPolicy( 0, 2, 60 );
+
+        assertSame( policy.getCircuitBreaker( "a" ), policy.getCircuitBreaker( "a" ) );
+
+        CircuitBreaker breaker = policy.getCircuitBreaker( "a" );
+        breaker.recordFailure();
+        assertTrue( breaker.allowRequest() );
+        breaker.recordFailure();
+        assertFalse( breaker.allowRequest() );
+        assertTrue( policy.getCircuitBreaker( "b" ).allowRequest() );
+    }
+
+    @Test
+    public void testCircuitBreakerRecovery() throws InterruptedException
+    {
+        CircuitBreaker breaker = new CircuitBreaker( "a", 1, 10 );
+
+        breaker.recordFailure();
+        assertEquals( CircuitBreaker.State.OPEN, breaker.getState() );
+        Thread.sleep( 20 );
+
+        assertTrue( breaker.allowRequest() );
+        assertEquals( CircuitBreaker.State.HALF_OPEN, breaker.getState() );
+        breaker.recordFailure();
+        assertFalse( breaker.allowRequest() );
+
+        Thread.sleep( 20 );
+        assertTrue( breaker.allowRequest() );
+        breaker.recordSuccess();
+        assertEquals( CircuitBreaker.State.CLOSED, breaker.getState() );
+    }
+
+    @Test
+    public void testCircuitBreakerDisabled()
+    {
+        CircuitBreaker breaker = new CircuitBreaker( "a", 0, 10 );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            breaker.recordFailure();
+        }
+        assertTrue( breaker.allowRequest() );
+    }
+
+    @Test
+    public void testCircuitBreakerSingleTrial() throws InterruptedException
+    {
+        CircuitBreaker breaker = new CircuitBreaker( "a", 1, 10 );
+
+        breaker.recordFailure();
+        Thread.sleep( 20 );
+
+        assertTrue( breaker.allowRequest() );
+        assertFalse( breaker.allowRequest() );
+
+        // A gateway timeout says nothing of the endpoint's health ; the next request becomes the trial.
+        breaker.record( 504, false );
+        assertEquals( CircuitBreaker.State.HALF_OPEN, breaker.getState() );
+        assertTrue( breaker.allowRequest() );
+        assertFalse( breaker.allowRequest() );
+
+        breaker.record( 200, false );
+        assertEquals( CircuitBreaker.State.CLOSED, breaker.getState() );
+        assertTrue( breaker.allowRequest() );
+        assertTrue( breaker.allowRequest() );
+    }
+
+    @Test
+    public void testCircuitBreakerFailures()
+    {
+        CircuitBreaker breaker = new CircuitBreaker( "a", 1, 10000 );
+
+        breaker.record( 504, false );
+        breaker.record( 404, false );
+        breaker.record( -1, false );
+        assertEquals( CircuitBreaker.State.CLOSED, breaker.getState() );
+
+        breaker.record( 503, false );
+        assertEquals( CircuitBreaker.State.OPEN, breaker.getState() );
+
+        breaker = new CircuitBreaker( "b", 1, 10000 );
+        breaker.record( 500, false );
+        assertEquals( CircuitBreaker.State.OPEN, breaker.getState() );
+
+        breaker = new CircuitBreaker( "c", 1, 10000 );
+        breaker.record( -1, true );
+        assertEquals( CircuitBreaker.State.OPEN, breaker.getState() );
+    }
+}
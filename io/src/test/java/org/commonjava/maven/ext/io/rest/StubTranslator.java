@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Translator that records its requests and only knows of {@link #FOUND}, which is translated to a
+ * <code>redhat-1</code> version. Project version lookups translate every GAV to a <code>redhat-2</code> version.
+ */
+class StubTranslator implements Translator
+{
+    static final ProjectVersionRef FOUND = SimpleProjectVersionRef.parse( "org.foo:bar:1.0" );
+
+    static final ProjectVersionRef MISSING = SimpleProjectVersionRef.parse( "org.foo:baz:1.0" );
+
+    final List<List<ProjectVersionRef>> requests = new ArrayList<>();
+
+    @Override
+    public Map<ProjectVersionRef, String> lookupVersions( List<ProjectVersionRef> projects )
+    {
+        requests.add( new ArrayList<>( projects ) );
+
+        Map<ProjectVersionRef, String> result = new HashMap<>();
+        projects.stream()
+                .filter( p -> p.equals( FOUND ) )
+                .forEach( p -> result.put( p, p.getVersionString() + ".redhat-1" ) );
+        return result;
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> lookupProjectVersions( List<ProjectVersionRef> projects )
+    {
+        requests.add( new ArrayList<>( projects ) );
+
+        Map<ProjectVersionRef, String> result = new HashMap<>();
+        projects.forEach( p -> result.put( p, p.getVersionString() + ".redhat-2" ) );
+        return result;
+    }
+}
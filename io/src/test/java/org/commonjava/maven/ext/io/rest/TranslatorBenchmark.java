@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.json.RESTMetrics;
+import org.commonjava.maven.ext.io.rest.handler.StubDAJettyHandler;
+import org.commonjava.maven.ext.io.rest.rule.MockServer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.commonjava.maven.ext.io.rest.Translator.DEFAULT_CONNECTION_TIMEOUT_SEC;
+import static org.commonjava.maven.ext.io.rest.Translator.DEFAULT_SOCKET_TIMEOUT_SEC;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the throughput and latency of {@link DefaultTranslator#lookupVersions(List)} against a stub Dependency
+ * Analyser for a range of reactor sizes, partition strategies and injected failures. It is not run as part of the
+ * normal build ; run it with
+ * <pre>
+ * mvn -pl io test -Dtest=TranslatorBenchmark
+ * </pre>
+ * The sizes, stub latency and failure rate may be changed with the <code>benchmark.sizes</code>,
+ * <code>benchmark.baseLatency</code> (ms), <code>benchmark.perGavLatency</code> (&micro;s),
+ * <code>benchmark.failureRate</code> and <code>benchmark.padding</code> system properties. The results are logged and
+ * written to <code>benchmark.output</code> (by default <code>target/translator-benchmark.csv</code>).
+ */
+public class TranslatorBenchmark
+{
+    private enum Strategy
+    {
+        NO_OP( 0, Translator.DEFAULT_CONCURRENCY, Translator.DEFAULT_TARGET_LATENCY_SEC ),
+        USER_DEFINED( 100, Translator.DEFAULT_CONCURRENCY, Translator.DEFAULT_TARGET_LATENCY_SEC ),
+        AUTO( -1, Translator.DEFAULT_CONCURRENCY, Translator.DEFAULT_TARGET_LATENCY_SEC ),
+        ADAPTIVE( -1, Translator.DEFAULT_CONCURRENCY, 1 ),
+        CONCURRENT( -1, 4, Translator.DEFAULT_TARGET_LATENCY_SEC );
+
+        private final int maxSize;
+
+        private final int concurrency;
+
+        private final int targetLatency;
+
+        Strategy( int maxSize, int concurrency, int targetLatency )
+        {
+            this.maxSize = maxSize;
+            this.concurrency = concurrency;
+            this.targetLatency = targetLatency;
+        }
+    }
+
+    private enum Fault
+    {
+        NONE,
+        UNAVAILABLE,
+        TIMEOUT
+    }
+
+    private final Logger logger = LoggerFactory.getLogger( TranslatorBenchmark.class );
+
+    private final StubDAJettyHandler handler = new StubDAJettyHandler();
+
+    @Rule
+    public final MockServer mockServer = new MockServer( handler );
+
+    @Test
+    public void benchmarkLookupVersions() throws IOException, RestException
+    {
+        final double failureRate = Double.parseDouble( System.getProperty( "benchmark.failureRate", "0.05" ) );
+        final List<String> results = new ArrayList<>();
+
+        handler.setBaseLatency( Long.getLong( "benchmark.baseLatency", 20 ) );
+        handler.setPerGavLatency( Long.getLong( "benchmark.perGavLatency", 200 ) );
+        handler.setPadding( Integer.getInteger( "benchmark.padding", 0 ) );
+
+        results.add( "strategy,fault,gavs,wallMillis,gavsPerSec,requests,splits,meanMillis,maxMillis,requestBytes,responseBytes" );
+
+        for ( String size : System.getProperty( "benchmark.sizes", "100,1000,5000,20000" ).split( "," ) )
+        {
+            final List<ProjectVersionRef> gavs = generateGAVs( Integer.parseInt( size.trim() ) );
+
+            for ( Strategy strategy : Strategy.values() )
+            {
+                for ( Fault fault : Fault.values() )
+                {
+                    handler.reset( gavs.size() );
+                    handler.setUnavailableRate( fault == Fault.UNAVAILABLE ? failureRate : 0 );
+                    handler.setTimeoutRate( fault == Fault.TIMEOUT ? failureRate : 0 );
+
+                    results.add( run( strategy, fault, gavs ) );
+                }
+            }
+        }
+
+        logger.info( "Benchmark results:{}{}", System.lineSeparator(),
+                     String.join( System.lineSeparator(), results ) );
+
+        File output = new File( System.getProperty( "benchmark.output", "target/translator-benchmark.csv" ) );
+        try ( PrintWriter writer = new PrintWriter( output, StandardCharsets.UTF_8.name() ) )
+        {
+            results.forEach( writer::println );
+        }
+    }
+
+    private String run( Strategy strategy, Fault fault, List<ProjectVersionRef> gavs ) throws RestException
+    {
+        // No wait between retries after a 503 so that only the cost of splitting is measured.
+        final DefaultTranslator translator = new DefaultTranslator( mockServer.getUrl(), strategy.maxSize,
+                                                                    Translator.CHUNK_SPLIT_COUNT, false, "",
+                                                                    Collections.emptyMap(),
+                                                                    DEFAULT_CONNECTION_TIMEOUT_SEC,
+                                                                    DEFAULT_SOCKET_TIMEOUT_SEC, 0,
+                                                                    strategy.concurrency, strategy.targetLatency,
+                                                                    new RetryPolicy(), false );
+        final long start = System.nanoTime();
+        final Map<ProjectVersionRef, String> result = translator.lookupVersions( gavs );
+        final long wallMillis = Math.max( 1, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+        final RESTMetrics metrics = translator.getMetrics();
+
+        assertEquals( gavs.size(), result.size() );
+
+        return String.join( ",", Arrays.asList( strategy.name(), fault.name(), String.valueOf( gavs.size() ),
+                                                String.valueOf( wallMillis ),
+                                                String.valueOf( gavs.size() * 1000L / wallMillis ),
+                                                String.valueOf( metrics.getRequests() ),
+                                                String.valueOf( metrics.getSplits() ),
+                                                String.valueOf( metrics.getTotalMillis() / metrics.getRequests() ),
+                                                String.valueOf( metrics.getMaxMillis() ),
+                                                String.valueOf( metrics.getRequestBytes() ),
+                                                String.valueOf( metrics.getResponseBytes() ) ) );
+    }
+
+    private static List<ProjectVersionRef> generateGAVs( int size )
+    {
+        final List<ProjectVersionRef> gavs = new ArrayList<>( size );
+
+        for ( int i = 0; i < size; i++ )
+        {
+            gavs.add( new SimpleProjectVersionRef( "org.benchmark.group" + ( i / 50 ), "artifact-" + i,
+                                                   "1." + ( i % 10 ) + ".0" ) );
+        }
+        return gavs;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest;
+
+import org.commonjava.maven.ext.common.json.RESTMetrics;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TranslatorMetricsTest
+{
+    @Test
+    public void testEmpty()
+    {
+        RESTMetrics report = new TranslatorMetrics().toReport();
+
+        assertEquals( 0, report.getRequests() );
+        assertEquals( 0, report.getMinMillis() );
+        assertTrue( report.getStatuses().isEmpty() );
+        assertEquals( TranslatorMetrics.LATENCY_BUCKETS.length + 1, report.getLatencyHistogram().size() );
+    }
+
+    @Test
+    public void testRecord()
+    {
+        TranslatorMetrics metrics = new TranslatorMetrics();
+
+        metrics.record( 10, 200, 50, 1000, 2000 );
+        metrics.record( 5, 504, 100, 500, 100 );
+        metrics.record( 5, -1, 200000, 500, 0 );
+        metrics.recordSplit();
+        metrics.recordRetries( 4 );
+
+        RESTMetrics report = metrics.toReport();
+
+        assertEquals( 3, report.getRequests() );
+        assertEquals( 20, report.getGavs() );
+        assertEquals( 1, report.getSplits() );
+        assertEquals( 4, report.getRetries() );
+        assertEquals( 2000, report.getRequestBytes() );
+        assertEquals( 2100, report.getResponseBytes() );
+        assertEquals( 50, report.getMinMillis() );
+        assertEquals( 200000, report.getMaxMillis() );
+        assertEquals( 200150, report.getTotalMillis() );
+
+        assertEquals( Long.valueOf( 2 ), report.getLatencyHistogram().get( "100" ) );
+        assertEquals( Long.valueOf( 0 ), report.getLatencyHistogram().get( "250" ) );
+        assertEquals( Long.valueOf( 1 ), report.getLatencyHistogram().get( "+Inf" ) );
+
+        assertEquals( Long.valueOf( 1 ), report.getStatuses().get( "200" ) );
+        assertEquals( Long.valueOf( 1 ), report.getStatuses().get( "504" ) );
+        assertEquals( Long.valueOf( 1 ), report.getStatuses().get( "error" ) );
+    }
+}
@@ -22,6 +22,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import kong.unirest.Unirest;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.json.RESTMetrics;
 import org.commonjava.maven.ext.io.rest.handler.AddSuffixJettyHandler;
 import org.commonjava.maven.ext.io.rest.rule.MockServer;
 import org.junit.Before;
@@ -42,6 +43,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 
 import static org.commonjava.maven.ext.io.rest.Translator.DEFAULT_CONNECTION_TIMEOUT_SEC;
 import static org.commonjava.maven.ext.io.rest.Translator.DEFAULT_SOCKET_TIMEOUT_SEC;
@@ -49,6 +51,7 @@ import static org.commonjava.maven.ext.io.rest.Translator.RETRY_DURATION_SEC;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -123,6 +126,61 @@ public class VersionTranslatorTest
     }
 
 
+    @Test
+    public void testTranslateVersionsMetrics() throws RestException
+    {
+        List<ProjectVersionRef> gavs = Arrays.asList(
+            new SimpleProjectVersionRef( "com.example", "example", "1.0" ),
+            new SimpleProjectVersionRef( "com.example", "example-dep", "2.0" ));
+
+        versionTranslator.lookupVersions( gavs );
+        versionTranslator.lookupProjectVersions( gavs );
+
+        RESTMetrics metrics = versionTranslator.getMetrics();
+
+        assertEquals( 2, metrics.getRequests() );
+        assertEquals( 4, metrics.getGavs() );
+        assertEquals( 0, metrics.getSplits() );
+        assertEquals( Long.valueOf( 2 ), metrics.getStatuses().get( "200" ) );
+        assertEquals( 2, metrics.getLatencyHistogram().values().stream().mapToLong( Long::longValue ).sum() );
+        assertTrue( metrics.getRequestBytes() > 0 );
+        assertTrue( metrics.getResponseBytes() > 0 );
+    }
+
+    @Test
+    public void testTranslateVersionsAsync() throws RestException
+    {
+        List<ProjectVersionRef> gavs = Arrays.asList(
+            new SimpleProjectVersionRef( "com.example", "example", "1.0" ),
+            new SimpleProjectVersionRef( "com.example", "example-dep", "2.0" ));
+
+        CompletableFuture<Map<ProjectVersionRef, String>> first = versionTranslator.lookupVersionsAsync( gavs );
+        CompletableFuture<Map<ProjectVersionRef, String>> second = versionTranslator.lookupVersionsAsync( aLotOfGavs );
+
+        assertEquals( versionTranslator.lookupVersions( gavs ), Translator.await( first ) );
+        assertEquals( aLotOfGavs.stream().distinct().count(), Translator.await( second ).size() );
+    }
+
+    @Test
+    public void testTranslateVersionsAsyncFailure()
+    {
+        Translator translator = new DefaultTranslator( "http://127.0.0.2", 0,
+                                                       Translator.CHUNK_SPLIT_COUNT, false, "",
+                                                       Collections.emptyMap(),
+                                                       DEFAULT_CONNECTION_TIMEOUT_SEC,
+                                                       DEFAULT_SOCKET_TIMEOUT_SEC, RETRY_DURATION_SEC );
+        try
+        {
+            Translator.await( translator.lookupProjectVersionsAsync( Collections.singletonList(
+                            new SimpleProjectVersionRef( "com.example", "example", "1.0" ) ) ) );
+            fail( "Failed to throw RestException when server failed to respond." );
+        }
+        catch ( RestException ex )
+        {
+            // Pass
+        }
+    }
+
     @Test
     public void testTranslateVersionsWithNulls() throws RestException
     {
@@ -193,6 +251,22 @@ public class VersionTranslatorTest
         }
     }
 
+    @Test
+    public void testTranslateVersionsConcurrently() throws RestException
+    {
+        Translator translator = new DefaultTranslator( mockServer.getUrl(), 32, Translator.CHUNK_SPLIT_COUNT, false, "",
+                                                       Collections.emptyMap(),
+                                                       DEFAULT_CONNECTION_TIMEOUT_SEC,
+                                                       DEFAULT_SOCKET_TIMEOUT_SEC, RETRY_DURATION_SEC, 4,
+                                                       Translator.DEFAULT_TARGET_LATENCY_SEC, new RetryPolicy(), false );
+
+        Map<ProjectVersionRef, String> concurrentResult = translator.lookupVersions( aLotOfGavs );
+        Map<ProjectVersionRef, String> sequentialResult = versionTranslator.lookupVersions( aLotOfGavs );
+
+        assertEquals( aLotOfGavs.stream().distinct().count(), concurrentResult.size() );
+        assertEquals( sequentialResult, concurrentResult );
+    }
+
     static List<ProjectVersionRef> loadALotOfGAVs() throws IOException {
         List<ProjectVersionRef> result = new ArrayList<>();
         String result1;
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2012 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.maven.ext.io.rest.handler;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Setter;
+import org.commonjava.maven.ext.io.rest.DefaultTranslator.Endpoint;
+import org.commonjava.maven.ext.io.rest.Translator;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jetty handler that imitates the Dependency Analyser lookup endpoints for load testing. Every GAV is answered with
+ * a suffixed version after a configurable delay ; a proportion of the larger requests may fail with HTTP error 503 or
+ * 504, and each result may be padded to increase the size of the response.
+ */
+public class StubDAJettyHandler
+                extends AbstractHandler
+                implements Handler
+{
+    private final Logger logger = LoggerFactory.getLogger( StubDAJettyHandler.class );
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private Random random = new Random( 0 );
+
+    /**
+     * Fixed delay in milliseconds added to every request.
+     */
+    @Setter
+    private long baseLatency;
+
+    /**
+     * Delay in microseconds added to a request for each GAV it contains.
+     */
+    @Setter
+    private long perGavLatency;
+
+    /**
+     * Proportion (from 0 to 1) of requests that fail with HTTP error 503.
+     */
+    @Setter
+    private double unavailableRate;
+
+    /**
+     * Proportion (from 0 to 1) of requests that fail with HTTP error 504.
+     */
+    @Setter
+    private double timeoutRate;
+
+    /**
+     * Requests with this many GAVs or fewer never fail, so that splitting always eventually succeeds.
+     */
+    @Setter
+    private int minFailureSize = Translator.CHUNK_SPLIT_COUNT;
+
+    /**
+     * Number of characters of padding added to each result.
+     */
+    @Setter
+    private int padding;
+
+    public void reset( long seed )
+    {
+        random = new Random( seed );
+        requests.set( 0 );
+        failures.set( 0 );
+    }
+
+    public int getRequests()
+    {
+        return requests.get();
+    }
+
+    public int getFailures()
+    {
+        return failures.get();
+    }
+
+    @Override
+    public void handle( String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response )
+                    throws IOException
+    {
+        if ( !"POST".equals( request.getMethod() ) || !target.contains( Endpoint.LOOKUP_GAVS.getEndpoint() ) )
+        {
+            logger.info( "Handling: {} {} with StubDAJettyHandler failed", request.getMethod(), target );
+            return;
+        }
+        requests.incrementAndGet();
+
+        final GAVSchema gavSchema = objectMapper.readValue( request.getInputStream(), GAVSchema.class );
+        final int size = gavSchema.artifacts.size();
+        final double failure;
+
+        synchronized ( this )
+        {
+            failure = random.nextDouble();
+        }
+
+        try
+        {
+            Thread.sleep( baseLatency + ( perGavLatency * size ) / 1000 );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if ( size > minFailureSize && failure < unavailableRate + timeoutRate )
+        {
+            failures.incrementAndGet();
+            response.setStatus( failure < unavailableRate ? HttpServletResponse.SC_SERVICE_UNAVAILABLE :
+                                                HttpServletResponse.SC_GATEWAY_TIMEOUT );
+            baseRequest.setHandled( true );
+            return;
+        }
+
+        final String versionField = target.contains( Endpoint.LOOKUP_LATEST.getEndpoint() ) ?
+                        "latestVersion" :
+                        "bestMatchVersion";
+        final char[] pad = new char[padding];
+        Arrays.fill( pad, 'x' );
+
+        response.setContentType( "application/json;charset=utf-8" );
+        response.setStatus( HttpServletResponse.SC_OK );
+
+        try ( JsonGenerator generator = objectMapper.getFactory().createGenerator( response.getOutputStream() ) )
+        {
+            generator.writeStartArray();
+            for ( Map<String, Object> gav : gavSchema.artifacts )
+            {
+                generator.writeStartObject();
+                generator.writeStringField( "groupId", (String) gav.get( "groupId" ) );
+                generator.writeStringField( "artifactId", (String) gav.get( "artifactId" ) );
+                generator.writeStringField( "version", (String) gav.get( "version" ) );
+                generator.writeStringField( versionField, gav.get( "version" ) + "-" + AddSuffixJettyHandler.DEFAULT_SUFFIX );
+                if ( padding > 0 )
+                {
+                    generator.writeFieldName( "padding" );
+                    generator.writeString( pad, 0, pad.length );
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        baseRequest.setHandled( true );
+    }
+}